@@ -14,6 +14,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.event.ContextClosedEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.net.InetAddress;
@@ -22,6 +23,7 @@ import java.util.Set;
 
 @Slf4j
 @SpringBootApplication
+@EnableScheduling
 public class SpringTeleEcomApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,78 @@
+package com.example.SpringTeleEcom.config;
+
+import com.example.SpringTeleEcom.repo.ProductSearchRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Postgres-specific schema that Hibernate's ddl-auto cannot express
+ * (generated columns, GIN indexes, JDBC-only tables). Every statement is idempotent and
+ * runs before the other startup runners.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class DatabaseSchemaInitializer implements CommandLineRunner {
+
+    private static final String SEARCH_CONFIG = ProductSearchRepository.SEARCH_CONFIG;
+
+    private static final List<String> STATEMENTS = List.of(
+            // Full-text document for product search: name/brand weigh most, then category, then description
+            "ALTER TABLE product ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (" +
+                    "setweight(to_tsvector('" + SEARCH_CONFIG + "', coalesce(name, '')), 'A') || " +
+                    "setweight(to_tsvector('" + SEARCH_CONFIG + "', coalesce(brand, '')), 'A') || " +
+                    "setweight(to_tsvector('" + SEARCH_CONFIG + "', coalesce(category, '')), 'B') || " +
+                    "setweight(to_tsvector('" + SEARCH_CONFIG + "', coalesce(description, '')), 'C')" +
+                    ") STORED",
+            "CREATE INDEX IF NOT EXISTS idx_product_search_vector ON product USING GIN (search_vector)",
+            // Transactional outbox for order events (OrderOutbox writes, OutboxRelay drains)
+            "CREATE TABLE IF NOT EXISTS outbox_event (" +
+                    "id BIGSERIAL PRIMARY KEY, " +
+                    "aggregate_id VARCHAR(64) NOT NULL, " +
+                    "event_type VARCHAR(64) NOT NULL, " +
+                    "payload JSONB NOT NULL, " +
+                    "created_at TIMESTAMPTZ NOT NULL DEFAULT now())",
+            // Lease of a relay that has claimed the event and is publishing it; NULL = unclaimed
+            "ALTER TABLE outbox_event ADD COLUMN IF NOT EXISTS claimed_until TIMESTAMPTZ"
+    );
+
+    // Need extension privileges the application role may lack: each runs on its own and a
+    // failure only costs the index it would have created
+    private static final List<String> OPTIONAL_STATEMENTS = List.of(
+            "CREATE EXTENSION IF NOT EXISTS pg_trgm",
+            // Admin order search by customer name substring (ILIKE '%...%')
+            "CREATE INDEX IF NOT EXISTS idx_orders_customer_trgm ON orders USING GIN (customer_name gin_trgm_ops)"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public DatabaseSchemaInitializer(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        // Pool runs with auto-commit off, so DDL needs an explicit transaction to stick
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void run(String... args) {
+        transactionTemplate.executeWithoutResult(status -> STATEMENTS.forEach(jdbcTemplate::execute));
+        log.info("🗄️ Database schema extensions applied ({} statements)", STATEMENTS.size());
+
+        for (String statement : OPTIONAL_STATEMENTS) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.execute(statement));
+            } catch (DataAccessException e) {
+                log.warn("⚠️ Optional schema statement skipped ({}): {}", statement, e.getMostSpecificCause().getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.SpringTeleEcom.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * app.rate-limit.*: request limits per route, enforced by RateLimitFilter.
+ *
+ * Rules are checked in order and the first match applies; requests matching no rule
+ * are not limited.
+ */
+@ConfigurationProperties(prefix = "app.rate-limit")
+public record RateLimitProperties(@DefaultValue("true") boolean enabled,
+                                  @DefaultValue("100000") long maxClients,
+                                  List<Rule> rules) {
+
+    public enum Key {
+        // Client address, as resolved by the servlet container from trusted proxies
+        IP,
+        // Subject of a valid bearer token; falls back to IP for anonymous requests
+        USER
+    }
+
+    /**
+     * @param pattern Spring path pattern, e.g. /api/orders or /api/auth/register*
+     * @param method  HTTP method to match; blank matches any
+     * @param limit   requests allowed per period, all of which may arrive at once
+     * @param period  time for an exhausted client to get the full limit back
+     */
+    public record Rule(String pattern,
+                       String method,
+                       @DefaultValue("60") long limit,
+                       @DefaultValue("1m") Duration period,
+                       @DefaultValue("ip") Key key) {
+    }
+
+    public RateLimitProperties {
+        rules = rules == null ? List.of() : List.copyOf(rules);
+    }
+}
@@ -24,7 +24,8 @@ public class RequestLoggingInterceptor implements HandlerInterceptor {
         String method = request.getMethod();
         String uri = request.getRequestURI();
         String queryString = request.getQueryString();
-        String clientIp = getClientIP(request);
+        // Already the client address when a trusted proxy forwarded it (forward-headers-strategy=native)
+        String clientIp = request.getRemoteAddr();
         String userAgent = request.getHeader("User-Agent");
         String authHeader = request.getHeader("Authorization");
 
@@ -80,14 +81,6 @@ public class RequestLoggingInterceptor implements HandlerInterceptor {
         }
     }
 
-    private String getClientIP(HttpServletRequest request) {
-        String xForwardedFor = request.getHeader("X-Forwarded-For");
-        if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
-            return xForwardedFor.split(",")[0].trim();
-        }
-        return request.getRemoteAddr();
-    }
-
     private String getStatusEmoji(int status) {
         if (status >= 200 && status < 300) return "✅";
         if (status >= 300 && status < 400) return "↪️";
@@ -1,9 +1,13 @@
 package com.example.SpringTeleEcom.config;
 
+import com.example.SpringTeleEcom.security.BoundedPasswordEncoder;
 import com.example.SpringTeleEcom.security.JwtAuthenticationFilter;
+import com.example.SpringTeleEcom.security.RateLimitFilter;
 import com.example.SpringTeleEcom.security.CustomOAuth2SuccessHandler;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -18,6 +22,7 @@ import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.*;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -25,10 +30,12 @@ import java.util.stream.Collectors;
 
 @Configuration
 @EnableMethodSecurity
+@EnableConfigurationProperties(RateLimitProperties.class)
 @RequiredArgsConstructor
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final RateLimitFilter rateLimitFilter;
     private final CustomOAuth2SuccessHandler oAuth2SuccessHandler;
 
     // Read allowed origins from env (comma-separated) with sensible defaults
@@ -107,7 +114,10 @@ public class SecurityConfig {
                         .successHandler(oAuth2SuccessHandler)
                 )
 
-                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+
+                // Per-client limits (app.rate-limit.rules) before any token or password work
+                .addFilterBefore(rateLimitFilter, JwtAuthenticationFilter.class);
 
         return http.build();
     }
@@ -118,9 +128,17 @@ public class SecurityConfig {
         return config.getAuthenticationManager();
     }
 
+    // BCrypt on its own bounded pool (see BoundedPasswordEncoder). Raising the strength
+    // re-hashes each stored password at that user's next successful login.
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            MeterRegistry meterRegistry,
+            @Value("${app.security.password.bcrypt-strength:10}") int strength,
+            @Value("${app.security.password.hashing.core-share:0.5}") double coreShare,
+            @Value("${app.security.password.hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${app.security.password.hashing.max-wait:5s}") Duration maxWait) {
+        int threads = (int) Math.max(1, Math.round(Runtime.getRuntime().availableProcessors() * coreShare));
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(strength), threads, queueCapacity, maxWait, meterRegistry);
     }
 
     @Bean
@@ -152,7 +170,9 @@ public class SecurityConfig {
         // Allow common methods and headers, and credentials (cookies)
         configuration.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH"));
         configuration.setAllowedHeaders(List.of("*")); // Allow all headers including multipart
-        configuration.setExposedHeaders(List.of("Authorization", "Content-Type"));
+        configuration.setExposedHeaders(List.of("Authorization", "Content-Type", "Idempotent-Replayed", "Location", "Retry-After",
+                "X-Has-More", "X-Next-Cursor",
+                "RateLimit-Limit", "RateLimit-Remaining", "RateLimit-Reset", "RateLimit-Policy"));
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(3600L);
 
@@ -3,14 +3,26 @@ package com.example.SpringTeleEcom.controller;
 import com.example.SpringTeleEcom.model.dto.*;
 import com.example.SpringTeleEcom.model.User;
 import com.example.SpringTeleEcom.security.JwtService;
+import com.example.SpringTeleEcom.security.PasswordHashingBusyException;
+import com.example.SpringTeleEcom.security.TokenRevocationList;
+import com.example.SpringTeleEcom.security.TokenVersionRegistry;
 import com.example.SpringTeleEcom.service.AuthService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.authentication.*;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/auth")
 @RequiredArgsConstructor
@@ -19,6 +31,8 @@ public class AuthController {
     private final AuthenticationManager authenticationManager;
     private final JwtService jwtService;
     private final AuthService authService;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final TokenRevocationList revocationList;
 
     @PostMapping("/login")
     public ResponseEntity<AuthResponse> login(@RequestBody LoginRequest request) {
@@ -35,7 +49,9 @@ public class AuthController {
         boolean isAdmin = user.getAuthorities().stream()
                 .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
 
-        String token = jwtService.generateToken(user.getUsername());
+        String token = jwtService.generateToken(user.getUsername(), user.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList());
 
         return ResponseEntity.ok(
                 new AuthResponse(token, user.getUsername(), isAdmin)
@@ -51,7 +67,7 @@ public class AuthController {
                 request.fullName()    // ⬅️ record accessor
         );
 
-        String token = jwtService.generateToken(newUser.getUsername());
+        String token = jwtService.generateToken(newUser);
 
         return ResponseEntity.ok(
                 new AuthResponse(token, newUser.getUsername(), false)
@@ -69,10 +85,80 @@ public class AuthController {
                 request.fullName()
         );
 
-        String token = jwtService.generateToken(newAdmin.getUsername());
+        String token = jwtService.generateToken(newAdmin);
 
         return ResponseEntity.ok(
                 new AuthResponse(token, newAdmin.getUsername(), true)
         );
     }
+
+    // 🔹 Sign out: revokes the bearer token of this request (other sessions stay signed in)
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestHeader(value = "Authorization", required = false) String authorization) {
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            Claims claims = jwtService.verify(authorization.substring(7));
+            revocationList.revoke(claims.getId(), claims.getSubject(), claims.getExpiration().toInstant());
+            System.out.println("🚪 Logged out token of user: " + claims.getSubject());
+            return ResponseEntity.noContent().build();
+        } catch (JwtException e) {
+            // Expired or invalid: nothing left to revoke
+            return ResponseEntity.noContent().build();
+        }
+    }
+
+    // 🔹 Revoke one specific (e.g. leaked) token – ADMIN only
+    // Body: { "token": "<jwt>" }
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/tokens/revoke")
+    public ResponseEntity<?> revokeToken(@RequestBody RevokeTokenRequest request) {
+        if (request.token() == null || request.token().isBlank()) {
+            return ResponseEntity.badRequest().body("token is required");
+        }
+        try {
+            Claims claims = jwtService.verify(request.token());
+            revocationList.revoke(claims.getId(), claims.getSubject(), claims.getExpiration().toInstant());
+            System.out.println("🔒 Admin revoked token " + claims.getId() + " of user: " + claims.getSubject());
+            return ResponseEntity.ok(Map.of("jti", claims.getId(), "username", claims.getSubject()));
+        } catch (ExpiredJwtException e) {
+            return ResponseEntity.ok(Map.of("message", "Token already expired"));
+        } catch (JwtException e) {
+            return ResponseEntity.badRequest().body("Not a token issued by this service");
+        }
+    }
+
+    // 🔹 Sign out everywhere: revokes every token issued to the caller so far
+    @PostMapping("/logout-all")
+    public ResponseEntity<?> logoutAll(Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        long version = tokenVersionRegistry.revokeAll(authentication.getName());
+        System.out.println("🚪 All tokens revoked by user: " + authentication.getName());
+        return ResponseEntity.ok(Map.of("username", authentication.getName(), "tokenVersion", version));
+    }
+
+    // 🔹 Revoke every token of a user – ADMIN only (compromised account, role change)
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/users/{username}/revoke-tokens")
+    public ResponseEntity<?> revokeTokens(@PathVariable String username) {
+        long version = tokenVersionRegistry.revokeAll(username);
+        if (version < 0) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found: " + username);
+        }
+        System.out.println("🔒 Admin revoked all tokens of user: " + username);
+        return ResponseEntity.ok(Map.of("username", username, "tokenVersion", version));
+    }
+
+    // Login and registration hash passwords on a bounded pool; when it is saturated the
+    // request is turned away instead of queueing behind the burst
+    @ExceptionHandler(PasswordHashingBusyException.class)
+    public ResponseEntity<String> hashingBusy(PasswordHashingBusyException e) {
+        System.out.println("🚦 Password hashing saturated - rejecting auth request");
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(e.getMessage());
+    }
 }
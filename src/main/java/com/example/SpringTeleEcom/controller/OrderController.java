@@ -1,53 +1,150 @@
 package com.example.SpringTeleEcom.controller;
 
+import com.example.SpringTeleEcom.model.dto.BulkStatusRequest;
+import com.example.SpringTeleEcom.model.dto.CursorPage;
 import com.example.SpringTeleEcom.model.dto.OrderRequest;
 import com.example.SpringTeleEcom.model.dto.OrderResponse;
+import com.example.SpringTeleEcom.model.dto.OrderStatusResponse;
+import com.example.SpringTeleEcom.repo.OrderSearchRepository;
+import com.example.SpringTeleEcom.service.IdempotencyConflictException;
+import com.example.SpringTeleEcom.service.InvalidStatusTransitionException;
+import com.example.SpringTeleEcom.service.OrderIdempotencyStore;
+import com.example.SpringTeleEcom.service.OrderIntakeQueue;
+import com.example.SpringTeleEcom.service.OrderQueueFullException;
 import com.example.SpringTeleEcom.service.OrderService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api")
 public class OrderController {
 
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final String HAS_MORE_HEADER = "X-Has-More";
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final OrderSearchRepository.Filter NO_FILTER =
+            new OrderSearchRepository.Filter(null, null, null, null, null, null);
+
     private final OrderService orderService;
+    private final OrderIdempotencyStore idempotencyStore;
+    private final OrderIntakeQueue intakeQueue;
 
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService,
+                           OrderIdempotencyStore idempotencyStore,
+                           OrderIntakeQueue intakeQueue) {
         this.orderService = orderService;
+        this.idempotencyStore = idempotencyStore;
+        this.intakeQueue = intakeQueue;
     }
 
     // 🔹 Place order – authenticated user
+    // Optional Idempotency-Key header: retries with the same key (and body) get the first
+    // response back (Idempotent-Replayed: true) instead of placing a second order.
+    // With app.orders.async.enabled the order is queued instead: 202 + the order id to poll
+    // at GET /api/orders/{orderId}/status, or 429 when the queue is full.
     @PreAuthorize("isAuthenticated()")
     @PostMapping("/orders")
-    public ResponseEntity<OrderResponse> placeOrder(@RequestBody OrderRequest orderRequest) {
-        OrderResponse orderResponse = orderService.placeOrder(orderRequest);
-        return new ResponseEntity<>(orderResponse, HttpStatus.CREATED);
+    public ResponseEntity<?> placeOrder(
+            @RequestBody OrderRequest orderRequest,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            Authentication authentication) {
+
+        boolean async = intakeQueue.isEnabled();
+        HttpStatus created = async ? HttpStatus.ACCEPTED : HttpStatus.CREATED;
+        Supplier<Object> place = async
+                ? () -> intakeQueue.submit(authentication.getName(), orderRequest, idempotencyKey)
+                : () -> orderService.placeOrder(orderRequest);
+
+        try {
+            if (idempotencyKey == null) {
+                return withStatusLocation(ResponseEntity.status(created), async, place.get());
+            }
+            if (idempotencyKey.isBlank() || idempotencyKey.length() > OrderIdempotencyStore.MAX_KEY_LENGTH) {
+                return ResponseEntity.badRequest().body("Invalid " + IDEMPOTENCY_KEY_HEADER + " header");
+            }
+
+            OrderIdempotencyStore.Outcome<Object> outcome = idempotencyStore.execute(
+                    authentication.getName(), idempotencyKey, orderRequest, place);
+            if (outcome.replayed()) {
+                System.out.println("🔁 Replaying order for " + IDEMPOTENCY_KEY_HEADER + " " + idempotencyKey);
+            }
+            return withStatusLocation(ResponseEntity.status(created)
+                    .header(IDEMPOTENT_REPLAYED_HEADER, String.valueOf(outcome.replayed())), async, outcome.response());
+        } catch (IdempotencyConflictException e) {
+            // 409 = retry later (original still running), 422 = key reused for another body
+            return ResponseEntity.status(e.isInProgress() ? HttpStatus.CONFLICT : HttpStatus.UNPROCESSABLE_ENTITY)
+                    .body(e.getMessage());
+        } catch (OrderQueueFullException e) {
+            System.out.println("🚦 Order intake queue full - rejecting order");
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(e.getMessage());
+        }
+    }
+
+    private static ResponseEntity<Object> withStatusLocation(ResponseEntity.BodyBuilder builder, boolean async, Object body) {
+        if (async && body instanceof OrderStatusResponse queued) {
+            builder.location(URI.create("/api/orders/" + queued.orderId() + "/status"));
+        }
+        return builder.body(body);
+    }
+
+    // 🔹 Progress of an order queued by the async intake (owner or ADMIN)
+    // Frontend: GET /api/orders/{orderId}/status -> { orderId, state: QUEUED|PROCESSING|COMPLETED|FAILED, order, error }
+    @PreAuthorize("isAuthenticated()")
+    @GetMapping("/orders/{orderId}/status")
+    public ResponseEntity<OrderStatusResponse> getOrderStatus(@PathVariable String orderId,
+                                                              Authentication authentication) {
+        boolean admin = authentication.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+        OrderStatusResponse status = intakeQueue.status(orderId, admin ? null : authentication.getName());
+        if (status == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(status);
     }
 
     // 🔹 Get orders for current logged-in user (MyOrders.jsx)
+    // Without parameters: the newest app.orders.my.list-max-orders orders, with X-Has-More /
+    // X-Next-Cursor like the admin list.
+    // With any of size / cursor / status / from / to, a keyset page (newest first) is returned instead:
+    //   GET /api/orders/my?size=20&status=SHIPPED
+    //   GET /api/orders/my?size=20&cursor=<nextCursor from previous page>
     @PreAuthorize("isAuthenticated()")
     @GetMapping("/orders/my")
-    public ResponseEntity<List<OrderResponse>> getMyOrders() {
+    public ResponseEntity<?> getMyOrders(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String cursor) {
+
+        if (size != null || cursor != null || status != null || from != null || to != null) {
+            System.out.println("📋 GET /api/orders/my - Keyset page (size=" + size + ", status=" + status + ")");
+            try {
+                return ResponseEntity.ok(orderService.getCurrentUserOrderPage(status, from, to, cursor, size));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
+        }
+
         System.out.println("📦 GET /api/orders/my - Fetching orders for current user");
         try {
-            List<OrderResponse> orderResponseList = orderService.getCurrentUserOrderResponses();
-            System.out.println("✅ Found " + orderResponseList.size() + " orders for user");
-
-            // Log each order's tax details for debugging
-            orderResponseList.forEach(order -> {
-                System.out.println("   Order " + order.orderId() + ":");
-                System.out.println("      Subtotal: $" + order.subtotal());
-                System.out.println("      Shipping: $" + order.shipping());
-                System.out.println("      Tax: $" + order.tax());
-                System.out.println("      Total: $" + order.totalAmount());
-                System.out.println("      Items: " + order.items().size());
-            });
-
-            return new ResponseEntity<>(orderResponseList, HttpStatus.OK);
+            CursorPage<OrderResponse> recent = orderService.getCurrentUserOrderResponses();
+            System.out.println("✅ Found " + recent.items().size() + " orders for user");
+            return cappedList(recent);
         } catch (Exception e) {
             System.err.println("❌ Error fetching user orders: " + e.getMessage());
             e.printStackTrace();
@@ -55,14 +152,52 @@ public class OrderController {
         }
     }
 
+    // Capped list body: tell the client there is more and where paged mode continues
+    private static ResponseEntity<List<OrderResponse>> cappedList(CursorPage<OrderResponse> recent) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(HAS_MORE_HEADER, String.valueOf(recent.hasMore()));
+        if (recent.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, recent.nextCursor());
+        }
+        return response.body(recent.items());
+    }
+
     // 🔹 Get all orders – ADMIN only (Order.jsx)
+    // Without parameters: the newest app.orders.admin.list-max-orders orders; X-Has-More /
+    // X-Next-Cursor say whether older ones exist and the cursor to page on with.
+    // With any filter or size / cursor, a keyset page (newest first) is returned instead:
+    //   GET /api/orders?size=50&status=PLACED&from=2025-01-01&to=2025-01-31
+    //   GET /api/orders?email=jane@example.com   /   ?customer=jane   /   ?userId=42
+    //   GET /api/orders?size=50&cursor=<nextCursor from previous page>
     @PreAuthorize("hasRole('ADMIN')")
     @GetMapping("/orders")
-    public ResponseEntity<List<OrderResponse>> getAllOrders() {
+    public ResponseEntity<?> getAllOrders(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String email,
+            @RequestParam(required = false) String customer,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String cursor) {
+
+        OrderSearchRepository.Filter filter = new OrderSearchRepository.Filter(userId, status, from, to, email, customer);
+        if (size != null || cursor != null || !filter.equals(NO_FILTER)) {
+            System.out.println("📋 GET /api/orders - Admin keyset page (size=" + size + ", filter=" + filter + ")");
+            try {
+                CursorPage<OrderResponse> page = orderService.searchOrders(filter, cursor, size);
+                System.out.println("✅ " + page.items().size() + " order(s), hasMore=" + page.hasMore());
+                return ResponseEntity.ok(page);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
+        }
+
         System.out.println("📦 GET /api/orders - Admin fetching all orders");
         try {
-            List<OrderResponse> orderResponseList = orderService.getAllOrderResponses();
-            System.out.println("✅ Found " + orderResponseList.size() + " total orders in database");
+            CursorPage<OrderResponse> recent = orderService.getAllOrderResponses();
+            List<OrderResponse> orderResponseList = recent.items();
+            System.out.println("✅ Found " + orderResponseList.size() + " orders in database");
 
             if (!orderResponseList.isEmpty()) {
                 System.out.println("📋 Sample order: " + orderResponseList.get(0).orderId());
@@ -70,7 +205,7 @@ public class OrderController {
                 System.out.println("⚠️ No orders found in database!");
             }
 
-            return new ResponseEntity<>(orderResponseList, HttpStatus.OK);
+            return cappedList(recent);
         } catch (Exception e) {
             System.err.println("❌ Error fetching all orders: " + e.getMessage());
             e.printStackTrace();
@@ -80,17 +215,39 @@ public class OrderController {
 
 
 
+    // 🔹 Bulk status change – ADMIN only (warehouse: mark hundreds of orders SHIPPED at once)
+    // Frontend: PUT /api/orders/status  { "orderIds": ["ORD...", ...], "status": "SHIPPED" }
+    // -> per-id outcome: UPDATED | UNCHANGED | NOT_FOUND | INVALID_TRANSITION
+    @PreAuthorize("hasRole('ADMIN')")
+    @PutMapping("/orders/status")
+    public ResponseEntity<?> bulkUpdateOrderStatus(@RequestBody BulkStatusRequest request) {
+        try {
+            return ResponseEntity.ok(orderService.bulkUpdateStatus(request.orderIds(), request.status()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     // 🔹 Update order status – ADMIN only
     // Frontend: PUT /api/orders/{orderId}/status?status=SHIPPED
+    // Same transitions as the bulk endpoint: 400 for an unknown status, 409 for a move it does not allow
     @PreAuthorize("hasRole('ADMIN')")
     @PutMapping("/orders/{orderId}/status")
     public ResponseEntity<String> updateOrderStatus(
             @PathVariable String orderId,
             @RequestParam String status
     ) {
-        boolean updated = orderService.updateStatus(orderId, status);
+        boolean updated;
+        try {
+            updated = orderService.updateStatus(orderId, status);
+        } catch (IllegalArgumentException e) {
+            // Not an order status at all
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (InvalidStatusTransitionException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
         if (updated) {
-            return ResponseEntity.ok("Order status updated to: " + status);
+            return ResponseEntity.ok("Order status updated to: " + status.trim().toUpperCase());
         }
         return ResponseEntity.status(HttpStatus.NOT_FOUND)
                 .body("Order not found");
@@ -1,70 +1,169 @@
 package com.example.SpringTeleEcom.controller;
 
 import com.example.SpringTeleEcom.model.Product;
+import com.example.SpringTeleEcom.model.dto.CursorPage;
+import com.example.SpringTeleEcom.model.dto.FacetedPage;
 import com.example.SpringTeleEcom.model.dto.ProductDTO;
+import com.example.SpringTeleEcom.model.dto.ProductSuggestion;
+import com.example.SpringTeleEcom.model.dto.ProductSummary;
+import com.example.SpringTeleEcom.service.ProductFacetIndex;
 import com.example.SpringTeleEcom.service.ProductService;
+import com.example.SpringTeleEcom.storage.ImageRendition;
+import com.example.SpringTeleEcom.storage.StoredImage;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncUtils;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import java.io.IOException;
-import java.util.Base64;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api")
 public class ProductController {
 
+    // Hex chars of the content hash used as URL version (?v=)
+    private static final int IMAGE_VERSION_LENGTH = 16;
+
+    // Tomcat sendfile request attributes (see org.apache.tomcat.util.net.Constants)
+    private static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    // Paging state of the legacy list body of /product/search (same headers as the order lists)
+    private static final String HAS_MORE_HEADER = "X-Has-More";
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final ProductService productService;
+    private final ObjectMapper objectMapper;
+
+    // Each running export pins one of the few pooled connections
+    private final Semaphore exportPermits;
+    private static final String EXPORT_PERMIT_INTERCEPTOR = ProductController.class.getName() + ".exportPermit";
+    // How far X-Export-Started-At is set back to cover writes still in flight at the start
+    private final Duration exportSinceMargin;
 
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService,
+                             ObjectMapper objectMapper,
+                             @Value("${app.products.export.max-concurrent:1}") int maxConcurrentExports,
+                             @Value("${app.products.export.since-margin:1m}") Duration exportSinceMargin) {
         this.productService = productService;
+        this.objectMapper = objectMapper;
+        this.exportPermits = new Semaphore(maxConcurrentExports);
+        this.exportSinceMargin = exportSinceMargin;
     }
 
-    // Helper method to convert Product to ProductDTO
-    private ProductDTO convertToDTO(Product product) {
-        ProductDTO dto = ProductDTO.builder()
-                .id(product.getId())
-                .name(product.getName())
-                .description(product.getDescription())
-                .brand(product.getBrand())
-                .price(product.getPrice())
-                .category(product.getCategory())
-                .releaseDate(product.getReleaseDate())
-                .productAvailable(product.isProductAvailable())
-                .stockQuantity(product.getStockQuantity())
-                .imageName(product.getImageName())
-                .imageType(product.getImageType())
+    // Helper method to convert a list projection to ProductDTO (image served by URL)
+    private ProductDTO convertToDTO(ProductSummary summary) {
+        return convertToDTO(summary, ServletUriComponentsBuilder.fromCurrentContextPath().toUriString());
+    }
+
+    // contextUrl variant for code running off the request thread (streaming bodies)
+    private ProductDTO convertToDTO(ProductSummary summary, String contextUrl) {
+        return ProductDTO.builder()
+                .id(summary.id())
+                .name(summary.name())
+                .description(summary.description())
+                .brand(summary.brand())
+                .price(summary.price())
+                .category(summary.category())
+                .releaseDate(summary.releaseDate())
+                .productAvailable(summary.productAvailable())
+                .stockQuantity(summary.stockQuantity())
+                .imageName(summary.imageName())
+                .imageType(summary.imageType())
+                .imageUrl(summary.hasImage() ? imageUrlFor(contextUrl, summary.id(), summary.imageHash()) : null)
                 .build();
+    }
 
-        // Add base64 image data if available
-        if (product.getImageData() != null && product.getImageData().length > 0) {
-            String base64Image = Base64.getEncoder().encodeToString(product.getImageData());
-            String imageDataUrl = "data:" +
-                (product.getImageType() != null ? product.getImageType() : "image/jpeg") +
-                ";base64," + base64Image;
-            dto.setImageUrl(imageDataUrl);
+    // Absolute URL so the frontend (served from another origin) can use it directly in <img src>.
+    // The ?v= content-hash makes the URL change whenever the image does, so it can be cached forever.
+    private static String imageUrlFor(String contextUrl, int productId, String imageHash) {
+        UriComponentsBuilder builder = UriComponentsBuilder.fromUriString(contextUrl);
+        builder.path("/api/product/{id}/image");
+        if (imageHash != null) {
+            builder.queryParam("v", imageVersion(imageHash));
         }
+        return builder.buildAndExpand(productId).toUriString();
+    }
+
+    private static String imageVersion(String imageHash) {
+        return imageHash.substring(0, IMAGE_VERSION_LENGTH);
+    }
 
-        return dto;
+    // Conditional GET evaluation (If-None-Match takes precedence over If-Modified-Since, RFC 9110 13.2.2)
+    private static boolean isNotModified(HttpHeaders requestHeaders, String etag, long lastModified) {
+        List<String> ifNoneMatch = requestHeaders.getIfNoneMatch();
+        if (!ifNoneMatch.isEmpty()) {
+            return ifNoneMatch.stream()
+                    .map(String::trim)
+                    .anyMatch(tag -> tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag));
+        }
+        long ifModifiedSince = requestHeaders.getIfModifiedSince();
+        return ifModifiedSince != -1 && lastModified != -1
+                && ifModifiedSince >= (lastModified / 1000) * 1000; // HTTP dates have second precision
     }
 
     // ================== PUBLIC ENDPOINTS ==================
 
     // Get all products (public)
+    // Without paging parameters the full catalog is returned (legacy behaviour).
+    // With any of size / sort / cursor, a keyset page is returned instead:
+    //   GET /api/product?size=20&sort=price
+    //   GET /api/product?size=20&sort=price&cursor=<nextCursor from previous page>
     @GetMapping("/product")
-    public ResponseEntity<List<ProductDTO>> getProducts() {
+    public ResponseEntity<?> getProducts(
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor) {
+
+        if (size != null || sort != null || cursor != null) {
+            return getProductPage(size, sort, cursor);
+        }
+
         System.out.println("📋 GET /api/product - Fetching all products");
-        List<Product> products = productService.getAllProducts();
+        List<ProductSummary> products = productService.getAllProducts();
         System.out.println("📦 Found " + products.size() + " products");
 
         if (!products.isEmpty()) {
-            System.out.println("📦 Sample product: " + products.get(0).getName());
+            System.out.println("📦 Sample product: " + products.get(0).name());
         } else {
             System.out.println("⚠️ No products in database!");
         }
@@ -76,13 +175,142 @@ public class ProductController {
         return ResponseEntity.ok(productDTOs);
     }
 
+    private ResponseEntity<?> getProductPage(Integer size, String sort, String cursor) {
+        System.out.println("📋 GET /api/product - Keyset page (size=" + size + ", sort=" + sort + ")");
+        try {
+            CursorPage<ProductSummary> page = productService.getProductPage(sort, cursor, size);
+            List<ProductDTO> productDTOs = page.items().stream()
+                    .map(this::convertToDTO)
+                    .collect(Collectors.toList());
+            return ResponseEntity.ok(new CursorPage<>(productDTOs, page.nextCursor(), page.hasMore()));
+        } catch (IllegalArgumentException e) {
+            System.err.println("❌ Invalid paging request: " + e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+
 
 
+    // Streaming catalog export (public) for partners and the search indexer
+    //   GET /api/product/export                          -> NDJSON, one ProductDTO per line
+    //   GET /api/product/export?format=json              -> one JSON array
+    //   GET /api/product/export?since=2024-05-01T00:00:00Z -> only products changed after that instant
+    // Gzipped when the client sends Accept-Encoding: gzip. Rows are written as they are read
+    // from a server-side cursor, so memory use is constant however large the catalog is.
+    // X-Export-Started-At is the value to pass as ?since= next time. updated_at is stamped when a
+    // write runs, not when it commits, so it lies app.products.export.since-margin before the start:
+    // rows may repeat, and only a write whose transaction outlasts that margin can be missed.
+    // Deletions are not reported by ?since=.
+    @GetMapping("/product/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) String since,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            HttpServletRequest request) {
+
+        boolean jsonArray;
+        if ("json".equalsIgnoreCase(format)) {
+            jsonArray = true;
+        } else if ("ndjson".equalsIgnoreCase(format)) {
+            jsonArray = false;
+        } else {
+            return ResponseEntity.badRequest().build();
+        }
+
+        Instant sinceInstant;
+        try {
+            sinceInstant = since != null && !since.isBlank() ? Instant.parse(since) : null;
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        if (!exportPermits.tryAcquire()) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .build();
+        }
+
+        // The body may never run (client gone before the async dispatch, async start failing,
+        // an error while writing the response head), so the permit is released exactly once by
+        // whichever comes first: the body itself, the async completion callback, or the end of
+        // a request whose streaming never started.
+        AtomicBoolean permitReleased = new AtomicBoolean();
+        Runnable releasePermit = () -> {
+            if (permitReleased.compareAndSet(false, true)) {
+                exportPermits.release();
+            }
+        };
+        WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(request);
+        asyncManager.registerCallableInterceptor(EXPORT_PERMIT_INTERCEPTOR, new CallableProcessingInterceptor() {
+            @Override
+            public <T> void afterCompletion(NativeWebRequest webRequest, Callable<T> task) {
+                releasePermit.run();
+            }
+        });
+        // Runs when the initial dispatch ends; only releases if streaming never started
+        RequestContextHolder.currentRequestAttributes().registerDestructionCallback(EXPORT_PERMIT_INTERCEPTOR, () -> {
+            if (!asyncManager.isConcurrentHandlingStarted()) {
+                releasePermit.run();
+            }
+        }, RequestAttributes.SCOPE_REQUEST);
+
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        String contextUrl = ServletUriComponentsBuilder.fromCurrentContextPath().toUriString();
+        Instant resumeFrom = Instant.now().minus(exportSinceMargin);
+        System.out.println("📤 Catalog export started (format=" + format + ", since=" + sinceInstant + ", gzip=" + gzip + ")");
+
+        StreamingResponseBody body = out -> {
+            try {
+                OutputStream target = gzip ? new GZIPOutputStream(out, 8192) : out;
+                JsonGenerator generator = objectMapper.getFactory().createGenerator(target)
+                        .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                if (jsonArray) {
+                    generator.writeStartArray();
+                } else {
+                    generator.setRootValueSeparator(new SerializedString("\n"));
+                }
+
+                long count = productService.exportProducts(sinceInstant, summary -> {
+                    try {
+                        generator.writeObject(convertToDTO(summary, contextUrl));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+
+                if (jsonArray) {
+                    generator.writeEndArray();
+                } else if (count > 0) {
+                    generator.writeRaw('\n');
+                }
+                generator.close();
+                if (target instanceof GZIPOutputStream gzipOut) {
+                    gzipOut.finish();
+                }
+                System.out.println("📤 Catalog export finished: " + count + " products");
+            } catch (UncheckedIOException e) {
+                // Client went away mid-export; the cursor and connection are already released
+                throw e.getCause();
+            } finally {
+                releasePermit.run();
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(jsonArray ? MediaType.APPLICATION_JSON : NDJSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .header("X-Export-Started-At", resumeFrom.toString());
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
 
     // Get single product by id (public)
     @GetMapping("/product/{id}")
     public ResponseEntity<ProductDTO> getProductById(@PathVariable Long id) {
-        Product product = productService.getProductById(id);
+        ProductSummary product = productService.getProductSummary(id);
         if (product != null) {
             return ResponseEntity.ok(convertToDTO(product));
         } else {
@@ -91,32 +319,189 @@ public class ProductController {
     }
 
     // Get product image (public)
-    // Frontend: GET http://localhost:8080/api/product/{id}/image
+    // Frontend: GET http://localhost:8080/api/product/{id}/image?v={hash}[&size=thumb|card|detail]
+    // - Strong ETag = SHA-256 of the image (plus rendition name), Last-Modified = upload time
+    // - Versioned (?v= matching the current hash) URLs are immutable for a year
+    // - Unversioned URLs must revalidate, which costs a 304 and no image bytes
+    // - Bytes come from the ImageStore via sendfile / FileChannel.transferTo, never as a byte[]
+    // - A rendition that is still being generated falls back to the original (not cached long-term)
     @GetMapping("/product/{productId}/image")
-    public ResponseEntity<byte[]> getImageByProductId(@PathVariable Long productId) {
-        Product product = productService.getProductById(productId);
-        if (product != null && product.getImageData() != null) {
-            HttpHeaders headers = new HttpHeaders();
-
-            // If you store image type (e.g. "image/jpeg") in DB:
-            if (product.getImageType() != null) {
-                headers.setContentType(MediaType.parseMediaType(product.getImageType()));
-            } else {
-                headers.setContentType(MediaType.IMAGE_JPEG); // fallback
+    public ResponseEntity<StreamingResponseBody> getImageByProductId(
+            @PathVariable Long productId,
+            @RequestParam(value = "v", required = false) String version,
+            @RequestParam(value = "size", required = false) String size,
+            @RequestHeader HttpHeaders requestHeaders,
+            HttpServletRequest request) throws IOException {
+
+        ImageRendition rendition;
+        try {
+            rendition = ImageRendition.fromParam(size);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        // Served from the product cache - a revalidation that ends in 304 never touches Postgres
+        ProductSummary product = productService.getProductSummary(productId);
+        if (product == null || !product.hasImage()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        // If you store image type (e.g. "image/jpeg") in DB:
+        MediaType contentType = product.imageType() != null
+                ? MediaType.parseMediaType(product.imageType())
+                : MediaType.IMAGE_JPEG; // fallback
+
+        if (product.imageHash() == null) {
+            return legacyImageResponse(productId, contentType, requestHeaders);
+        }
+
+        // Resolve what will be served first - each rendition has its own ETag
+        Optional<StoredImage> stored = Optional.empty();
+        boolean renditionServed = false;
+        if (rendition != null) {
+            stored = productService.getStoredRendition(product.imageHash(), rendition);
+            renditionServed = stored.isPresent();
+        }
+        if (stored.isEmpty()) {
+            stored = productService.getStoredImage(product.imageHash());
+        }
+        if (stored.isEmpty()) {
+            System.err.println("❌ Image " + product.imageHash() + " of product " + productId + " missing from store");
+            return ResponseEntity.notFound().build();
+        }
+
+        String etag = "\"" + product.imageHash() + (renditionServed ? "-" + rendition.param() : "") + "\"";
+        long lastModified = product.imageUpdatedAt() != null ? product.imageUpdatedAt().toEpochMilli() : -1;
+        boolean immutable = imageVersion(product.imageHash()).equals(version) && (rendition == null || renditionServed);
+        CacheControl cacheControl = immutable
+                ? CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable()
+                : CacheControl.noCache().cachePublic();
+
+        if (isNotModified(requestHeaders, etag, lastModified)) {
+            ResponseEntity.BodyBuilder notModified = ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(cacheControl);
+            if (lastModified != -1) {
+                notModified.lastModified(lastModified);
             }
+            return notModified.build();
+        }
 
-            return new ResponseEntity<>(product.getImageData(), headers, HttpStatus.OK);
-        } else {
+        StoredImage image = stored.get();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(renditionServed ? MediaType.parseMediaType(ImageRendition.CONTENT_TYPE) : contentType)
+                .contentLength(image.size())
+                .eTag(etag)
+                .cacheControl(cacheControl);
+        if (lastModified != -1) {
+            response.lastModified(lastModified);
+        }
+
+        Optional<Path> file = image.localPath();
+        if (file.isPresent() && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTR))) {
+            // Tomcat writes the headers, then sends the file with sendfile(2) - no bytes cross the JVM heap
+            request.setAttribute(SENDFILE_FILENAME_ATTR, file.get().toString());
+            request.setAttribute(SENDFILE_START_ATTR, 0L);
+            request.setAttribute(SENDFILE_END_ATTR, image.size());
+            return response.build();
+        }
+
+        StreamingResponseBody body = out -> image.transferTo(Channels.newChannel(out));
+        return response.body(body);
+    }
+
+    // Rows whose bytes still live in Product.imageData (before ImageMigrationJob reaches them)
+    private ResponseEntity<StreamingResponseBody> legacyImageResponse(Long productId,
+                                                                      MediaType contentType,
+                                                                      HttpHeaders requestHeaders) {
+        byte[] imageData = productService.getImageData(productId);
+        if (imageData == null) {
             return ResponseEntity.notFound().build();
         }
+        String etag = "\"" + ProductService.sha256Hex(imageData) + "\"";
+        CacheControl cacheControl = CacheControl.noCache().cachePublic();
+        if (isNotModified(requestHeaders, etag, -1)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+        StreamingResponseBody body = out -> out.write(imageData);
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .contentLength(imageData.length)
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .body(body);
     }
 
-    // Search products (public)
+    // Faceted filtering (public), answered from in-memory bitmaps
+    //   GET /api/product/filter?category=Mobiles&brand=Apple&brand=Samsung&price=100-250&availability=available
+    //   GET /api/product/filter?...&size=20&cursor=<nextCursor from previous page>
+    // Response carries the page plus per-value counts for every facet.
+    @GetMapping("/product/filter")
+    public ResponseEntity<?> filterProducts(
+            @RequestParam(required = false) List<String> category,
+            @RequestParam(required = false) List<String> brand,
+            @RequestParam(required = false) List<String> price,
+            @RequestParam(required = false) List<String> availability,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String cursor) {
+
+        Map<String, List<String>> selection = new HashMap<>();
+        if (category != null) selection.put(ProductFacetIndex.CATEGORY, category);
+        if (brand != null) selection.put(ProductFacetIndex.BRAND, brand);
+        if (price != null) selection.put(ProductFacetIndex.PRICE, price);
+        if (availability != null) selection.put(ProductFacetIndex.AVAILABILITY, availability);
+
+        try {
+            FacetedPage<ProductSummary> page = productService.filterProducts(selection, cursor, size);
+            List<ProductDTO> productDTOs = page.items().stream()
+                    .map(this::convertToDTO)
+                    .collect(Collectors.toList());
+            return ResponseEntity.ok(new FacetedPage<>(productDTOs, page.nextCursor(), page.hasMore(),
+                    page.total(), page.facets()));
+        } catch (IllegalArgumentException e) {
+            System.err.println("❌ Invalid filter request: " + e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Search-box autocomplete (public), answered from memory
+    //   GET /api/product/suggest?prefix=sam&limit=8
+    @GetMapping("/product/suggest")
+    public ResponseEntity<List<ProductSuggestion>> suggestProducts(
+            @RequestParam String prefix,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(productService.suggestProducts(prefix, limit));
+    }
+
+    // Ranked full-text search (public)
+    //   GET /api/product/search?keyword=galaxy                    -> the best 20 matches as a list, with
+    //                                                                X-Has-More / X-Next-Cursor for the rest
+    //   GET /api/product/search?keyword=galaxy&size=20[&cursor=]  -> CursorPage for paging through results
     @GetMapping("/product/search")
-    public ResponseEntity<List<Product>> searchProduct(@RequestParam String keyword) {
-        List<Product> products = productService.searchProduct(keyword);
-        System.out.println("Searched products " + products);
-        return ResponseEntity.ok(products);
+    public ResponseEntity<?> searchProduct(
+            @RequestParam String keyword,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String cursor) {
+        try {
+            CursorPage<ProductSummary> page = productService.searchProducts(keyword, cursor, size);
+            System.out.println("🔍 Search '" + keyword + "' - " + page.items().size() + " result(s)");
+            List<ProductDTO> productDTOs = page.items().stream()
+                    .map(this::convertToDTO)
+                    .collect(Collectors.toList());
+            if (size == null && cursor == null) {
+                // Legacy list body; the paging state travels in headers
+                ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                        .header(HAS_MORE_HEADER, String.valueOf(page.hasMore()));
+                if (page.nextCursor() != null) {
+                    response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+                }
+                return response.body(productDTOs);
+            }
+            return ResponseEntity.ok(new CursorPage<>(productDTOs, page.nextCursor(), page.hasMore()));
+        } catch (IllegalArgumentException e) {
+            System.err.println("❌ Invalid search request: " + e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     // ================== ADMIN-ONLY ENDPOINTS ==================
@@ -197,9 +582,7 @@ public class ProductController {
     @PreAuthorize("hasRole('ADMIN')")
     @DeleteMapping("/product/{id}")
     public ResponseEntity<String> deleteProduct(@PathVariable Long id) {
-        Product product = productService.getProductById(id);
-        if (product != null) {
-            productService.deleteProduct(id);
+        if (productService.deleteProduct(id)) {
             return ResponseEntity.ok("Product deleted successfully");
         } else {
             return ResponseEntity.notFound().build();
@@ -0,0 +1,10 @@
+package com.example.SpringTeleEcom.inventory;
+
+import java.util.Map;
+
+/**
+ * Published after a ledger flush has committed.
+ * available maps each flushed product id to its in-memory available units at that time.
+ */
+public record InventoryFlushedEvent(Map<Integer, Long> available) {
+}
@@ -0,0 +1,98 @@
+package com.example.SpringTeleEcom.inventory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only file of stock deltas not yet known to be in Postgres.
+ *
+ * Fixed 16-byte records (seq, productId, delta). A torn record at the tail, left by
+ * a crash mid-write, is ignored on replay; a failed append is cut off again. Not thread-safe: InventoryLedger serializes
+ * appends; {@link #force()} may run concurrently with them.
+ */
+final class InventoryJournal implements Closeable {
+
+    record Entry(long seq, int productId, int delta) {}
+
+    private static final int RECORD_BYTES = 16;
+
+    private final FileChannel channel;
+
+    InventoryJournal(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        this.channel = FileChannel.open(directory.resolve("inventory.journal"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channel.position(channel.size() - channel.size() % RECORD_BYTES);
+    }
+
+    List<Entry> readAll() throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_BYTES * 1024);
+        long position = 0;
+        while (true) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            buffer.flip();
+            while (buffer.remaining() >= RECORD_BYTES) {
+                entries.add(new Entry(buffer.getLong(), buffer.getInt(), buffer.getInt()));
+            }
+            position += read - buffer.remaining();
+            if (read < buffer.capacity()) {
+                break;
+            }
+        }
+        return entries;
+    }
+
+    void append(List<Entry> entries) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(entries.size() * RECORD_BYTES);
+        for (Entry entry : entries) {
+            buffer.putLong(entry.seq()).putInt(entry.productId()).putInt(entry.delta());
+        }
+        buffer.flip();
+        long start = channel.position();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            // Drop any part that did reach the file, so replay cannot apply a rejected append
+            try {
+                channel.truncate(start);
+                channel.position(start);
+            } catch (IOException truncateFailure) {
+                e.addSuppressed(truncateFailure);
+            }
+            throw e;
+        }
+    }
+
+    // Group commit: one fsync covers every append since the last one
+    void force() throws IOException {
+        channel.force(false);
+    }
+
+    long size() throws IOException {
+        return channel.size();
+    }
+
+    void truncate() throws IOException {
+        channel.truncate(0);
+        channel.position(0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,345 @@
+package com.example.SpringTeleEcom.inventory;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * In-memory stock reservation for hot SKUs (opt-in: app.inventory.ledger.enabled).
+ *
+ * Without it every checkout of a SKU queues on that product's row lock in Postgres.
+ * With it, reservations are granted or denied against per-SKU StripedCounters
+ * (lock-free CAS), appended to a local InventoryJournal, and the net delta per product
+ * is written to product.stock_quantity by a flush every few milliseconds - one row
+ * update per SKU per flush, however many orders it covers.
+ *
+ * Durability: a journal record reaches the OS before the order is written, so a crash
+ * of the JVM loses nothing; unflushed records are replayed on startup. The checkpoint
+ * row (inventory_checkpoint) records the last journal seq applied to Postgres, in the
+ * same transaction as the stock updates, so replay never applies a delta twice.
+ * A reservation whose order insert never commits (crash in between) stays applied:
+ * the ledger errs towards underselling, never overselling.
+ *
+ * The counters are authoritative for stock, so this assumes one application instance.
+ */
+@Slf4j
+@Component
+public class InventoryLedger {
+
+    private final boolean enabled;
+    private final int stripes;
+    private final Path journalDir;
+    private final long compactBytes;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final ConcurrentHashMap<Integer, StripedCounter> counters = new ConcurrentHashMap<>();
+
+    // Guards journal appends, seq and pending - held only for an in-memory update plus one write()
+    private final ReentrantLock journalLock = new ReentrantLock();
+    // Held for a whole flush; also taken when a counter is (re)loaded from the database
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private InventoryJournal journal;
+    private long lastSeq;
+    private Map<Integer, Long> pending = new HashMap<>();
+
+    private final Counter granted;
+    private final Counter denied;
+
+    public InventoryLedger(JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           ApplicationEventPublisher eventPublisher,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.inventory.ledger.enabled:false}") boolean enabled,
+                           @Value("${app.inventory.ledger.journal-dir:./data/inventory}") String journalDir,
+                           @Value("${app.inventory.ledger.stripes:8}") int stripes,
+                           @Value("${app.inventory.ledger.journal-compact-bytes:1048576}") long compactBytes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.journalDir = Path.of(journalDir);
+        this.stripes = Math.max(1, stripes);
+        this.compactBytes = compactBytes;
+
+        this.granted = Counter.builder("inventory.reservations").tag("result", "granted").register(meterRegistry);
+        this.denied = Counter.builder("inventory.reservations").tag("result", "denied").register(meterRegistry);
+        Gauge.builder("inventory.ledger.pending", this, ledger -> ledger.pendingCount())
+                .description("Products with stock deltas not yet flushed to the database")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Runs before the web server accepts requests, so no order sees pre-replay stock
+    @PostConstruct
+    void recover() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS inventory_checkpoint (" +
+                    "id SMALLINT PRIMARY KEY, last_seq BIGINT NOT NULL)");
+            jdbcTemplate.update("INSERT INTO inventory_checkpoint (id, last_seq) VALUES (1, 0) ON CONFLICT (id) DO NOTHING");
+        });
+        long checkpoint = jdbcTemplate.queryForObject("SELECT last_seq FROM inventory_checkpoint WHERE id = 1", Long.class);
+
+        journal = new InventoryJournal(journalDir);
+        lastSeq = checkpoint;
+        int replayed = 0;
+        for (InventoryJournal.Entry entry : journal.readAll()) {
+            lastSeq = Math.max(lastSeq, entry.seq());
+            if (entry.seq() > checkpoint) {
+                pending.merge(entry.productId(), (long) entry.delta(), Long::sum);
+                replayed++;
+            }
+        }
+        flush();
+        log.info("📒 Inventory ledger ready: replayed {} journal record(s) after checkpoint {}", replayed, checkpoint);
+    }
+
+    /**
+     * Reserves every line or none.
+     *
+     * @return ids that could not be reserved (empty on success)
+     */
+    public List<Integer> reserve(Map<Integer, Integer> quantityByProduct) {
+        Map<Integer, Integer> taken = new TreeMap<>();
+        // The counters actually taken from: overrideStock / forget may drop or replace the
+        // map entry meanwhile, and the units belong to the instance they came out of
+        Map<Integer, StripedCounter> takenFrom = new HashMap<>();
+        for (Map.Entry<Integer, Integer> line : new TreeMap<>(quantityByProduct).entrySet()) {
+            StripedCounter counter = counter(line.getKey());
+            if (counter == null || !counter.tryTake(line.getValue())) {
+                giveBack(taken, takenFrom);
+                denied.increment();
+                return List.of(line.getKey());
+            }
+            taken.put(line.getKey(), line.getValue());
+            takenFrom.put(line.getKey(), counter);
+        }
+        try {
+            record(taken, -1);
+        } catch (UncheckedIOException e) {
+            // Not journaled and not pending, so nothing will reach Postgres: give the units back
+            giveBack(taken, takenFrom);
+            throw e;
+        }
+        granted.increment();
+        return List.of();
+    }
+
+    private static void giveBack(Map<Integer, Integer> taken, Map<Integer, StripedCounter> takenFrom) {
+        taken.forEach((productId, quantity) -> takenFrom.get(productId).add(quantity));
+    }
+
+    // Gives back a reservation whose order could not be written. Journaled before the
+    // counters move: if the journal write fails the units stay reserved (undersell).
+    public void release(Map<Integer, Integer> quantityByProduct) {
+        record(quantityByProduct, 1);
+        quantityByProduct.forEach((productId, quantity) -> {
+            StripedCounter counter = counters.get(productId);
+            if (counter != null) {
+                counter.add(quantity);
+            }
+        });
+    }
+
+    /**
+     * Runs a write that sets a product's stock to an absolute value (admin edit).
+     * Pending deltas are flushed first so the write lands on current data, and the
+     * counter is reloaded from the database afterwards.
+     */
+    public <T> T overrideStock(int productId, Supplier<T> write) {
+        if (!enabled) {
+            return write.get();
+        }
+        flushLock.lock();
+        try {
+            flushLocked();
+            T result = write.get();
+            counters.remove(productId);
+            return result;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    public void forget(int productId) {
+        counters.remove(productId);
+    }
+
+    @Scheduled(fixedDelayString = "${app.inventory.ledger.flush-interval-ms:5}")
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            flushLocked();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushLocked() {
+        Map<Integer, Long> batch;
+        long seq;
+        journalLock.lock();
+        try {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new HashMap<>();
+            seq = lastSeq;
+        } finally {
+            journalLock.unlock();
+        }
+
+        try {
+            journal.force();
+            Timestamp now = Timestamp.from(Instant.now());
+            List<Object[]> args = new ArrayList<>(batch.size());
+            new TreeMap<>(batch).forEach((productId, delta) -> args.add(new Object[]{delta, delta, now, productId}));
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(
+                        "UPDATE product SET stock_quantity = stock_quantity + ?, " +
+                                "product_available = (stock_quantity + ? > 0), updated_at = ? WHERE id = ?",
+                        args);
+                jdbcTemplate.update("UPDATE inventory_checkpoint SET last_seq = ? WHERE id = 1", seq);
+            });
+        } catch (IOException | RuntimeException e) {
+            // Put the deltas back; the journal still has them, so a crash before the retry is covered too
+            journalLock.lock();
+            try {
+                batch.forEach((productId, delta) -> pending.merge(productId, delta, Long::sum));
+            } finally {
+                journalLock.unlock();
+            }
+            log.error("❌ Inventory flush failed, will retry: {}", e.getMessage());
+            return;
+        }
+
+        compactJournal();
+
+        Map<Integer, Long> available = new HashMap<>();
+        batch.keySet().forEach(productId -> {
+            StripedCounter counter = counters.get(productId);
+            if (counter != null) {
+                available.put(productId, counter.sum());
+            }
+        });
+        eventPublisher.publishEvent(new InventoryFlushedEvent(available));
+    }
+
+    // Everything in the journal is in Postgres once nothing is pending: start a fresh file
+    private void compactJournal() {
+        journalLock.lock();
+        try {
+            if (pending.isEmpty() && journal.size() > compactBytes) {
+                journal.truncate();
+            }
+        } catch (IOException e) {
+            log.warn("⚠️ Could not compact inventory journal: {}", e.getMessage());
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    // Journal first, then pending: a failed append leaves pending untouched, so the
+    // flush never writes a delta that has no journal record (and no order) behind it
+    private void record(Map<Integer, Integer> quantityByProduct, int sign) {
+        journalLock.lock();
+        try {
+            List<InventoryJournal.Entry> entries = new ArrayList<>(quantityByProduct.size());
+            for (Map.Entry<Integer, Integer> line : quantityByProduct.entrySet()) {
+                // A failed append burns these seqs; gaps are harmless to replay
+                entries.add(new InventoryJournal.Entry(++lastSeq, line.getKey(), sign * line.getValue()));
+            }
+            journal.append(entries);
+            for (InventoryJournal.Entry entry : entries) {
+                pending.merge(entry.productId(), (long) entry.delta(), Long::sum);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Inventory journal write failed", e);
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    // Loaded on first use: database stock plus whatever is still waiting to be flushed
+    private StripedCounter counter(int productId) {
+        StripedCounter counter = counters.get(productId);
+        if (counter != null) {
+            return counter;
+        }
+        flushLock.lock();
+        try {
+            return counters.computeIfAbsent(productId, id -> {
+                List<Integer> stock = jdbcTemplate.queryForList(
+                        "SELECT stock_quantity FROM product WHERE id = ?", Integer.class, id);
+                if (stock.isEmpty()) {
+                    return null;
+                }
+                long unflushed;
+                journalLock.lock();
+                try {
+                    unflushed = pending.getOrDefault(id, 0L);
+                } finally {
+                    journalLock.unlock();
+                }
+                return new StripedCounter(stock.get(0) + unflushed, stripes);
+            });
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private int pendingCount() {
+        journalLock.lock();
+        try {
+            return pending.size();
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws IOException {
+        if (!enabled || journal == null) {
+            return;
+        }
+        flush();
+        journal.close();
+    }
+}
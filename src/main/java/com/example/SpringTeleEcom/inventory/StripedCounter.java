@@ -0,0 +1,89 @@
+package com.example.SpringTeleEcom.inventory;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Available units of one SKU, split across independently CAS-ed stripes.
+ *
+ * Buyers start at a random stripe, so concurrent reservations of the same SKU mostly
+ * hit different cache lines instead of all spinning on one word. Each stripe is
+ * padded to its own 128 bytes (two lines, defeating adjacent-line prefetch).
+ * A stripe never goes negative, so the total can never be oversold.
+ */
+final class StripedCounter {
+
+    // Longs between two stripes: 16 * 8 bytes = 128 bytes
+    private static final int PAD = 16;
+
+    private final AtomicLongArray cells;
+    private final int stripes;
+
+    StripedCounter(long initial, int stripes) {
+        this.stripes = stripes;
+        // One extra pad in front keeps stripe 0 off the array header's line
+        this.cells = new AtomicLongArray((stripes + 1) * PAD);
+        long share = Math.max(initial, 0) / stripes;
+        long remainder = Math.max(initial, 0) % stripes;
+        for (int i = 0; i < stripes; i++) {
+            cells.set(index(i), share + (i < remainder ? 1 : 0));
+        }
+    }
+
+    /**
+     * Takes {@code amount} units or nothing. Tries to find a single stripe that can
+     * cover the amount first, then gathers it across stripes.
+     */
+    boolean tryTake(long amount) {
+        int home = ThreadLocalRandom.current().nextInt(stripes);
+
+        for (int i = 0; i < stripes; i++) {
+            int idx = index((home + i) % stripes);
+            long current = cells.get(idx);
+            while (current >= amount) {
+                if (cells.compareAndSet(idx, current, current - amount)) {
+                    return true;
+                }
+                current = cells.get(idx);
+            }
+        }
+
+        // Stock is fragmented across stripes: collect it piecewise, give it back if short
+        long taken = 0;
+        for (int i = 0; i < stripes && taken < amount; i++) {
+            int idx = index((home + i) % stripes);
+            long current = cells.get(idx);
+            while (current > 0 && taken < amount) {
+                long part = Math.min(current, amount - taken);
+                if (cells.compareAndSet(idx, current, current - part)) {
+                    taken += part;
+                }
+                current = cells.get(idx);
+            }
+        }
+        if (taken == amount) {
+            return true;
+        }
+        if (taken > 0) {
+            add(taken);
+        }
+        return false;
+    }
+
+    void add(long amount) {
+        cells.getAndAdd(index(ThreadLocalRandom.current().nextInt(stripes)), amount);
+    }
+
+    // Not a snapshot under concurrent updates, but exact once they quiesce
+    long sum() {
+        long sum = 0;
+        for (int i = 0; i < stripes; i++) {
+            sum += cells.get(index(i));
+        }
+        return sum;
+    }
+
+    private static int index(int stripe) {
+        return (stripe + 1) * PAD;
+    }
+}
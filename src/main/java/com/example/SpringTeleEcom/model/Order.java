@@ -12,6 +12,13 @@ import java.util.List;
 @Builder
 @Data
 @Entity(name = "orders")
+@Table(indexes = {
+        // (filter, order_date, id) indexes back the keyset-paginated order search, newest first
+        @Index(name = "idx_orders_user_date_id", columnList = "user_id, orderDate, id"),
+        @Index(name = "idx_orders_status_date_id", columnList = "status, orderDate, id"),
+        @Index(name = "idx_orders_email_date_id", columnList = "email, orderDate, id"),
+        @Index(name = "idx_orders_date_id", columnList = "orderDate, id")
+})
 public class Order {
 
     @Id
@@ -34,12 +41,17 @@ public class Order {
     private BigDecimal totalAmount; // Subtotal + Shipping + Tax
 
     // 🔥 ADD THIS — link order → user
-    @ManyToOne
+    // Lazy: reads go through OrderRepo's projections, never through this association
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private User user;
 
     // Order items - using "items" field name to match your getOrderItems() method
-    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private List<OrderItem> items;
 
     // Lombok will generate getItems() and setItems()
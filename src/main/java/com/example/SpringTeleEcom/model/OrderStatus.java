@@ -0,0 +1,51 @@
+package com.example.SpringTeleEcom.model;
+
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Order lifecycle and the transitions the status endpoints allow.
+ * Order.status stays a plain string column; this is the vocabulary for it.
+ *
+ * PLACED -> PROCESSING -> SHIPPED -> DELIVERED, and PLACED / PROCESSING -> CANCELLED.
+ */
+public enum OrderStatus {
+    PLACED,
+    PROCESSING,
+    SHIPPED,
+    DELIVERED,
+    CANCELLED;
+
+    public Set<OrderStatus> allowedNext() {
+        return switch (this) {
+            case PLACED -> EnumSet.of(PROCESSING, SHIPPED, CANCELLED);
+            case PROCESSING -> EnumSet.of(SHIPPED, CANCELLED);
+            case SHIPPED -> EnumSet.of(DELIVERED);
+            case DELIVERED, CANCELLED -> EnumSet.noneOf(OrderStatus.class);
+        };
+    }
+
+    // Statuses an order may be in to move to this one
+    public Set<OrderStatus> allowedPrevious() {
+        Set<OrderStatus> previous = EnumSet.noneOf(OrderStatus.class);
+        for (OrderStatus status : values()) {
+            if (status.allowedNext().contains(this)) {
+                previous.add(status);
+            }
+        }
+        return previous;
+    }
+
+    public static OrderStatus fromParam(String value) {
+        if (value != null) {
+            for (OrderStatus status : values()) {
+                if (status.name().equals(value.trim().toUpperCase(Locale.ROOT))) {
+                    return status;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Unsupported order status: " + value
+                + " (expected PLACED, PROCESSING, SHIPPED, DELIVERED or CANCELLED)");
+    }
+}
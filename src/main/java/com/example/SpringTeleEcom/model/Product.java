@@ -7,8 +7,10 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.Date;
 
 @NoArgsConstructor
@@ -16,6 +18,14 @@ import java.util.Date;
 @Builder
 @Data
 @Entity
+@Table(indexes = {
+        // Composite (sort key, id) indexes back the keyset-paginated listing
+        @Index(name = "idx_product_price_id", columnList = "price, id"),
+        @Index(name = "idx_product_name_id", columnList = "name, id"),
+        @Index(name = "idx_product_release_date_id", columnList = "releaseDate, id"),
+        // Incremental catalog export (?since=)
+        @Index(name = "idx_product_updated_at", columnList = "updatedAt")
+})
 public class Product {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -46,6 +56,19 @@ public class Product {
     private String imageName;
     private String imageType;
 
+    // SHA-256 (hex) of the current image bytes - ImageStore key, strong ETag and URL version
+    @Column(length = 64)
+    private String imageHash;
+
+    // When the current image was uploaded - used for Last-Modified
+    private Instant imageUpdatedAt;
+
+    // Last change to the row - drives the incremental export (?since=). Null for rows untouched since it was added.
+    @UpdateTimestamp
+    private Instant updatedAt;
+
+    // Legacy in-database image storage. New uploads go to the ImageStore (keyed by imageHash);
+    // existing blobs are drained by ImageMigrationJob and this column is left null.
     @Lob
     @JsonIgnore // Don't serialize in list view - use /product/{id}/image endpoint instead
     private byte[] imageData;
@@ -0,0 +1,42 @@
+package com.example.SpringTeleEcom.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * A revoked JWT, by its jti. Kept until the token would have expired anyway.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Data
+@Entity
+@Table(name = "revoked_token", indexes = {
+        // Startup load / purge of expired rows
+        @Index(name = "idx_revoked_token_expires_at", columnList = "expiresAt"),
+        // Incremental sync between instances
+        @Index(name = "idx_revoked_token_seq", columnList = "seq")
+})
+public class RevokedToken {
+
+    @Id
+    @Column(length = 36)
+    private String jti;
+
+    private String username;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    @Column(nullable = false)
+    private Instant revokedAt;
+
+    // Assigned by the database on insert; the sync cursor, independent of any instance's clock
+    @Column(insertable = false, updatable = false, columnDefinition = "BIGSERIAL")
+    private Long seq;
+}
@@ -25,11 +25,18 @@ public class User {
 
     private String fullName;
 
-    @ManyToMany(fetch = FetchType.EAGER)
+    // Carried in every JWT as "ver"; bumping it revokes all tokens issued so far (TokenVersionRegistry)
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long tokenVersion;
+
+    // Lazy: loaded together with the user by UserRepository.findByUsername's entity graph
+    @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
             name = "user_roles",
             joinColumns = @JoinColumn(name = "user_id"),
             inverseJoinColumns = @JoinColumn(name = "role_id")
     )
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Set<Role> roles;
 }
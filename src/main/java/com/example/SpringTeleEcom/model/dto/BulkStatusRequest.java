@@ -0,0 +1,9 @@
+package com.example.SpringTeleEcom.model.dto;
+
+import java.util.List;
+
+public record BulkStatusRequest(
+        List<String> orderIds,
+        String status
+) {
+}
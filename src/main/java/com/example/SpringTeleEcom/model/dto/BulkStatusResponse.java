@@ -0,0 +1,24 @@
+package com.example.SpringTeleEcom.model.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of PUT /api/orders/status: one result per distinct requested order id, in request order.
+ */
+public record BulkStatusResponse(
+        String status,
+        int updated,
+        List<Result> results
+) {
+
+    public enum Outcome {
+        UPDATED,
+        UNCHANGED,          // already in the target status
+        NOT_FOUND,
+        INVALID_TRANSITION  // current status cannot move to the target
+    }
+
+    // previousStatus is the status before this request (null when NOT_FOUND)
+    public record Result(String orderId, Outcome outcome, String previousStatus) {
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.SpringTeleEcom.model.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One page of a faceted product listing.
+ * total is the number of products matching the whole selection; facets maps
+ * facet name -> value -> matching products (counted without that facet's own filter).
+ */
+public record FacetedPage<T>(
+        List<T> items,
+        String nextCursor,
+        boolean hasMore,
+        int total,
+        Map<String, Map<String, Integer>> facets
+) {
+}
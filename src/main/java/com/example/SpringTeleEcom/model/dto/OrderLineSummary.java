@@ -0,0 +1,15 @@
+package com.example.SpringTeleEcom.model.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * One order item joined with its product's name - never the product row itself.
+ * orderId is the internal order key ({@link OrderSummary#id()}), not the public ORD... id.
+ */
+public record OrderLineSummary(
+        Long orderId,
+        String productName,
+        int quantity,
+        BigDecimal totalPrice
+) {
+}
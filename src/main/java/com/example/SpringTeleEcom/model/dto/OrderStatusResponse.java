@@ -0,0 +1,20 @@
+package com.example.SpringTeleEcom.model.dto;
+
+/**
+ * Progress of an order accepted by the async intake (GET /api/orders/{orderId}/status).
+ * order is set once COMPLETED, error once FAILED.
+ */
+public record OrderStatusResponse(
+        String orderId,
+        State state,
+        OrderResponse order,
+        String error
+) {
+
+    public enum State {
+        QUEUED,
+        PROCESSING,
+        COMPLETED,
+        FAILED
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.SpringTeleEcom.model.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Column projection of {@link com.example.SpringTeleEcom.model.Order} without its user or items.
+ * Items are loaded separately as {@link OrderLineSummary} rows for a whole page of orders.
+ */
+public record OrderSummary(
+        Long id,
+        String orderId,
+        String customerName,
+        String email,
+        String status,
+        LocalDate orderDate,
+        BigDecimal subtotal,
+        BigDecimal shipping,
+        BigDecimal tax,
+        BigDecimal totalAmount
+) {
+}
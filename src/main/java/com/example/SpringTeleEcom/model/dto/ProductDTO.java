@@ -24,6 +24,6 @@ public class ProductDTO {
     private int stockQuantity;
     private String imageName;
     private String imageType;
-    private String imageUrl;  // URL to fetch the image OR base64 encoded image
+    private String imageUrl;  // Versioned URL of /api/product/{id}/image (cacheable, never inline base64)
 }
 
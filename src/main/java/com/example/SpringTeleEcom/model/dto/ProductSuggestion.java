@@ -0,0 +1,12 @@
+package com.example.SpringTeleEcom.model.dto;
+
+/**
+ * One autocomplete suggestion.
+ * type is PRODUCT, BRAND or CATEGORY; productId is only set for PRODUCT.
+ */
+public record ProductSuggestion(
+        String type,
+        String text,
+        Integer productId
+) {
+}
@@ -0,0 +1,27 @@
+package com.example.SpringTeleEcom.model.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Date;
+
+/**
+ * Column projection of {@link com.example.SpringTeleEcom.model.Product} used by list views.
+ * Never selects the image bytes - only whether an image exists.
+ */
+public record ProductSummary(
+        int id,
+        String name,
+        String description,
+        String brand,
+        BigDecimal price,
+        String category,
+        Date releaseDate,
+        boolean productAvailable,
+        int stockQuantity,
+        String imageName,
+        String imageType,
+        String imageHash,
+        Instant imageUpdatedAt,
+        boolean hasImage
+) {
+}
@@ -0,0 +1,6 @@
+package com.example.SpringTeleEcom.model.dto;
+
+public record RevokeTokenRequest(
+        String token
+) {
+}
@@ -0,0 +1,28 @@
+package com.example.SpringTeleEcom.outbox;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Default sink: republishes each event on the Spring event bus, so in-process consumers
+ * just declare an {@code @EventListener} for {@link OutboxEvent}. Listeners run on the
+ * relay thread; one that throws fails the batch and it is retried.
+ */
+@Component
+@ConditionalOnProperty(name = "app.outbox.sink", havingValue = "event", matchIfMissing = true)
+public class ApplicationEventOutboxSink implements OutboxSink {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ApplicationEventOutboxSink(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public void publish(List<OutboxEvent> events) {
+        events.forEach(eventPublisher::publishEvent);
+    }
+}
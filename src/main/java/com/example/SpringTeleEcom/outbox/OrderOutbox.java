@@ -0,0 +1,70 @@
+package com.example.SpringTeleEcom.outbox;
+
+import com.example.SpringTeleEcom.model.dto.OrderResponse;
+import com.example.SpringTeleEcom.repo.OutboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records order lifecycle events in the outbox. Must be called inside the transaction
+ * that makes the change, so an event exists exactly when its change committed.
+ */
+@Component
+public class OrderOutbox {
+
+    public static final String ORDER_PLACED = "ORDER_PLACED";
+    public static final String ORDER_STATUS_CHANGED = "ORDER_STATUS_CHANGED";
+
+    public record StatusChange(String orderId, String previousStatus, String status) {}
+
+    private final OutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+
+    public OrderOutbox(OutboxRepository outboxRepository, ObjectMapper objectMapper) {
+        this.outboxRepository = outboxRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    // Payload: the OrderResponse returned to the customer
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void orderPlaced(OrderResponse order) {
+        outboxRepository.append(order.orderId(), ORDER_PLACED, toJson(order), Instant.now());
+    }
+
+    // Payload: { orderId, previousStatus, status, changedAt }
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void statusChanged(List<StatusChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        Instant now = Instant.now();
+        List<Object[]> rows = new ArrayList<>(changes.size());
+        for (StatusChange change : changes) {
+            Map<String, Object> payload = new LinkedHashMap<>();
+            payload.put("orderId", change.orderId());
+            payload.put("previousStatus", change.previousStatus());
+            payload.put("status", change.status());
+            payload.put("changedAt", now.toString());
+            rows.add(new Object[]{change.orderId(), ORDER_STATUS_CHANGED, toJson(payload), Timestamp.from(now)});
+        }
+        outboxRepository.appendAll(rows);
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize outbox payload", e);
+        }
+    }
+}
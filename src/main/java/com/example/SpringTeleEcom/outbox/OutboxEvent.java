@@ -0,0 +1,30 @@
+package com.example.SpringTeleEcom.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.time.Instant;
+
+/**
+ * One row of the outbox_event table as handed to an {@link OutboxSink}.
+ * id increases in commit order per writer and doubles as a dedup key for consumers:
+ * delivery is at-least-once, so a sink failure re-delivers the whole batch.
+ *
+ * @param aggregateId the public order id ("ORD...")
+ * @param type        e.g. {@link OrderOutbox#ORDER_PLACED}
+ * @param payload     event body as a JSON document
+ */
+public record OutboxEvent(long id, String aggregateId, String type, String payload, Instant createdAt) {
+
+    // Wire format shared by the file and webhook sinks, payload embedded as JSON (not a string)
+    public ObjectNode toJson(ObjectMapper objectMapper) throws JsonProcessingException {
+        ObjectNode node = objectMapper.createObjectNode()
+                .put("id", id)
+                .put("aggregateId", aggregateId)
+                .put("type", type)
+                .put("createdAt", createdAt.toString());
+        node.set("payload", objectMapper.readTree(payload));
+        return node;
+    }
+}
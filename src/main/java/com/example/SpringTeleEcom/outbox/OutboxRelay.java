@@ -0,0 +1,125 @@
+package com.example.SpringTeleEcom.outbox;
+
+import com.example.SpringTeleEcom.repo.OutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Moves committed outbox events to the active {@link OutboxSink} (opt-out: app.outbox.enabled).
+ *
+ * Each run claims batches of the oldest events by giving them a lease (claimed_until)
+ * and commits, publishes them with no transaction or connection held, then deletes them
+ * in a second short transaction - so a slow sink never pins rows or a pool connection,
+ * and a batch is removed only once the sink has accepted it. A failed publish hands the
+ * batch back; a relay that dies mid-batch leaves it to be re-claimed when the lease runs
+ * out, which must therefore outlast a publish (app.outbox.claim-lease vs. the webhook
+ * timeout). Several instances can relay concurrently without double-publishing each
+ * other; events are ordered within a batch, not across relays.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    private final OutboxRepository outboxRepository;
+    private final OutboxSink sink;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final Duration claimLease;
+    private final Duration maxRunTime;
+
+    private final Counter published;
+    private final Counter failures;
+    private final Timer lag;
+
+    // The outbox table is created by a startup runner; nothing to relay before that
+    private volatile boolean ready;
+
+    public OutboxRelay(OutboxRepository outboxRepository,
+                       OutboxSink sink,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry,
+                       @Value("${app.outbox.enabled:true}") boolean enabled,
+                       @Value("${app.outbox.batch-size:100}") int batchSize,
+                       @Value("${app.outbox.claim-lease:1m}") Duration claimLease,
+                       @Value("${app.outbox.max-run-time:2s}") Duration maxRunTime) {
+        this.outboxRepository = outboxRepository;
+        this.sink = sink;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+        this.claimLease = claimLease;
+        this.maxRunTime = maxRunTime;
+
+        this.published = Counter.builder("outbox.events.published").register(meterRegistry);
+        this.failures = Counter.builder("outbox.relay.failures").register(meterRegistry);
+        this.lag = Timer.builder("outbox.events.lag")
+                .description("Time from an event's commit to its delivery")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void onReady() {
+        ready = true;
+        if (enabled) {
+            log.info("📤 Outbox relay started (sink: {}, batch size {})", sink.getClass().getSimpleName(), batchSize);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.relay-interval-ms:500}")
+    public void relay() {
+        if (!enabled || !ready) {
+            return;
+        }
+        try {
+            // Keep going while batches come back full, for at most max-run-time so a backlog
+            // cannot hold the scheduler thread however slow the sink is
+            long deadline = System.nanoTime() + maxRunTime.toNanos();
+            int relayed;
+            do {
+                relayed = relayBatch();
+            } while (relayed == batchSize && System.nanoTime() - deadline < 0);
+        } catch (RuntimeException e) {
+            failures.increment();
+            log.warn("⚠️ Outbox relay failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    private int relayBatch() {
+        List<OutboxEvent> batch = transactionTemplate.execute(status -> outboxRepository.claimBatch(batchSize, claimLease));
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = batch.stream().map(OutboxEvent::id).toList();
+        try {
+            sink.publish(batch);
+        } catch (RuntimeException e) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> outboxRepository.release(ids));
+            } catch (RuntimeException releaseFailure) {
+                // The lease still runs out and the batch is retried then
+                e.addSuppressed(releaseFailure);
+            }
+            throw e;
+        }
+        transactionTemplate.executeWithoutResult(status -> outboxRepository.delete(ids));
+
+        Instant now = Instant.now();
+        batch.forEach(event -> lag.record(Duration.between(event.createdAt(), now)));
+        published.increment(batch.size());
+        return batch.size();
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.SpringTeleEcom.outbox;
+
+import java.util.List;
+
+/**
+ * Where the {@link OutboxRelay} delivers events. Exactly one sink is active, chosen by
+ * app.outbox.sink (event | file | webhook).
+ */
+public interface OutboxSink {
+
+    /**
+     * Delivers a batch, oldest first. Throwing leaves the whole batch in the outbox
+     * for the next relay run.
+     */
+    void publish(List<OutboxEvent> events);
+}
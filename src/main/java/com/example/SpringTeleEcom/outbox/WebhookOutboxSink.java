@@ -0,0 +1,64 @@
+package com.example.SpringTeleEcom.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * POSTs each batch as one JSON array to app.outbox.webhook.url. Any non-2xx answer
+ * fails the batch, so the receiver must dedupe on the event id.
+ */
+@Component
+@ConditionalOnProperty(name = "app.outbox.sink", havingValue = "webhook")
+public class WebhookOutboxSink implements OutboxSink {
+
+    private final ObjectMapper objectMapper;
+    private final URI url;
+    private final Duration timeout;
+    private final HttpClient httpClient;
+
+    public WebhookOutboxSink(ObjectMapper objectMapper,
+                             @Value("${app.outbox.webhook.url}") String url,
+                             @Value("${app.outbox.webhook.timeout:5s}") Duration timeout) {
+        this.objectMapper = objectMapper;
+        this.url = URI.create(url);
+        this.timeout = timeout;
+        this.httpClient = HttpClient.newBuilder().connectTimeout(timeout).build();
+    }
+
+    @Override
+    public void publish(List<OutboxEvent> events) {
+        try {
+            ArrayNode body = objectMapper.createArrayNode();
+            for (OutboxEvent event : events) {
+                body.add(event.toJson(objectMapper));
+            }
+
+            HttpRequest request = HttpRequest.newBuilder(url)
+                    .timeout(timeout)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                    .build();
+            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() / 100 != 2) {
+                throw new IllegalStateException("Outbox webhook answered HTTP " + response.statusCode());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Outbox webhook call failed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while calling outbox webhook", e);
+        }
+    }
+}
@@ -1,15 +1,46 @@
 package com.example.SpringTeleEcom.repo;
 
 import com.example.SpringTeleEcom.model.Order;
+import com.example.SpringTeleEcom.model.dto.OrderLineSummary;
+import com.example.SpringTeleEcom.model.dto.OrderSummary;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface OrderRepo extends JpaRepository<Order, Long> {
 
+    String SUMMARY_SELECT = "SELECT new com.example.SpringTeleEcom.model.dto.OrderSummary(" +
+            "o.id, o.orderId, o.customerName, o.email, o.status, o.orderDate, " +
+            "o.subtotal, o.shipping, o.tax, o.totalAmount) FROM orders o ";
+
+    String LINE_SELECT = "SELECT new com.example.SpringTeleEcom.model.dto.OrderLineSummary(" +
+            "i.order.id, p.name, i.quantity, i.totalPrice) FROM OrderItem i JOIN i.product p ";
+
     // All orders for a given user
     List<Order> findByUserId(Long userId);
 
     // Find by public-facing orderId like "ORDXXXX"
     Order findByOrderId(String orderId);
+
+    // Read side of the order views: one query for the orders, one for all their lines
+
+    // Newest first on idx_orders_user_date_id; the limit keeps MyOrders bounded
+    @Query(SUMMARY_SELECT + "WHERE o.user.id = :userId ORDER BY o.orderDate DESC, o.id DESC")
+    List<OrderSummary> findRecentSummariesByUserId(@Param("userId") Long userId, Pageable limit);
+
+    // One order by its public id; username = null skips the owner check (admin)
+    @Query(SUMMARY_SELECT + "WHERE o.orderId = :orderId AND (:username IS NULL OR o.user.username = :username)")
+    Optional<OrderSummary> findSummaryByOrderId(@Param("orderId") String orderId, @Param("username") String username);
+
+    // Newest first on idx_orders_date_id; the limit keeps the admin list bounded
+    @Query(SUMMARY_SELECT + "ORDER BY o.orderDate DESC, o.id DESC")
+    List<OrderSummary> findRecentSummaries(Pageable limit);
+
+    @Query(LINE_SELECT + "WHERE i.order.id IN :orderIds ORDER BY i.id")
+    List<OrderLineSummary> findLinesByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
 }
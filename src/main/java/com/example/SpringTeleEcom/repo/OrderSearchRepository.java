@@ -0,0 +1,118 @@
+package com.example.SpringTeleEcom.repo;
+
+import com.example.SpringTeleEcom.model.dto.OrderSummary;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Keyset-paginated order search, newest first.
+ *
+ * Every filter is an equality or range on a column that leads one of the
+ * (column, order_date, id) indexes on orders, so a page is an index range scan
+ * that stops after limit rows - cost follows the page size, not the order history.
+ * The customer name filter is a substring match served by the pg_trgm index on
+ * customer_name where that extension is available (see DatabaseSchemaInitializer); without
+ * it the match is applied while walking the date range, so a rare name can scan the whole
+ * history and is not covered by the page-size-bound latency above.
+ */
+@Repository
+public class OrderSearchRepository {
+
+    /**
+     * Search filters; null fields are not applied.
+     * from / to are inclusive order dates.
+     */
+    public record Filter(Long userId,
+                         String status,
+                         LocalDate from,
+                         LocalDate to,
+                         String email,
+                         String customer) {
+
+        public static Filter forUser(Long userId, String status, LocalDate from, LocalDate to) {
+            return new Filter(userId, status, from, to, null, null);
+        }
+    }
+
+    private static final String SELECT_SQL =
+            "SELECT o.id, o.order_id, o.customer_name, o.email, o.status, o.order_date, " +
+            "o.subtotal, o.shipping, o.tax, o.total_amount FROM orders o WHERE TRUE";
+
+    private static final RowMapper<OrderSummary> SUMMARY_MAPPER = (rs, rowNum) -> {
+        Date orderDate = rs.getDate("order_date");
+        return new OrderSummary(
+                rs.getLong("id"),
+                rs.getString("order_id"),
+                rs.getString("customer_name"),
+                rs.getString("email"),
+                rs.getString("status"),
+                orderDate != null ? orderDate.toLocalDate() : null,
+                rs.getBigDecimal("subtotal"),
+                rs.getBigDecimal("shipping"),
+                rs.getBigDecimal("tax"),
+                rs.getBigDecimal("total_amount"));
+    };
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public OrderSearchRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Up to limit orders matching the filter, ordered by (order_date, id) descending,
+     * starting strictly after (afterDate, afterId) when those are given.
+     */
+    @Transactional(readOnly = true)
+    public List<OrderSummary> search(Filter filter, LocalDate afterDate, Long afterId, int limit) {
+        StringBuilder sql = new StringBuilder(SELECT_SQL);
+        MapSqlParameterSource params = new MapSqlParameterSource();
+
+        if (filter.userId() != null) {
+            sql.append(" AND o.user_id = :userId");
+            params.addValue("userId", filter.userId());
+        }
+        if (filter.status() != null) {
+            sql.append(" AND o.status = :status");
+            params.addValue("status", filter.status().trim().toUpperCase(Locale.ROOT));
+        }
+        if (filter.email() != null) {
+            sql.append(" AND o.email = :email");
+            params.addValue("email", filter.email().trim());
+        }
+        if (filter.customer() != null) {
+            sql.append(" AND o.customer_name ILIKE :customer ESCAPE '\\'");
+            params.addValue("customer", "%" + escapeLike(filter.customer().trim()) + "%");
+        }
+        if (filter.from() != null) {
+            sql.append(" AND o.order_date >= :from");
+            params.addValue("from", filter.from());
+        }
+        if (filter.to() != null) {
+            sql.append(" AND o.order_date <= :to");
+            params.addValue("to", filter.to());
+        }
+        if (afterDate != null && afterId != null) {
+            sql.append(" AND (o.order_date, o.id) < (:afterDate, :afterId)");
+            params.addValue("afterDate", afterDate);
+            params.addValue("afterId", afterId);
+        }
+        sql.append(" ORDER BY o.order_date DESC, o.id DESC LIMIT :limit");
+        params.addValue("limit", limit);
+
+        return jdbcTemplate.query(sql.toString(), params, SUMMARY_MAPPER);
+    }
+
+    // "50%_off" must match literally, not as a pattern
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
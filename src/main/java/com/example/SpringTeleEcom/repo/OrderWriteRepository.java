@@ -0,0 +1,112 @@
+package com.example.SpringTeleEcom.repo;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * JDBC batch writes for order placement and bulk status changes.
+ *
+ * Hibernate cannot batch inserts into IDENTITY tables (it needs each generated id
+ * back immediately), and per-row saves of products cost a round trip each. These
+ * statements are sent as single JDBC batches and join the caller's transaction.
+ */
+@Repository
+public class OrderWriteRepository {
+
+    public record ItemRow(int productId, int quantity, BigDecimal totalPrice) {}
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OrderWriteRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Reserves stock with one conditional UPDATE per product, sent as one batch.
+     * The WHERE clause makes check-and-decrement a single atomic step in Postgres, so
+     * concurrent buyers can never both take the last unit; the row lock is only held
+     * until the surrounding transaction ends.
+     *
+     * Rows are updated in ascending id order so two carts sharing products always lock
+     * them in the same order and cannot deadlock.
+     *
+     * @return ids whose stock was too low (nothing is applied for them; the caller rolls back)
+     */
+    public List<Integer> reserveStock(Map<Integer, Integer> quantityByProduct, Instant now) {
+        Timestamp updatedAt = Timestamp.from(now);
+        List<Integer> productIds = new ArrayList<>(new TreeMap<>(quantityByProduct).keySet());
+        List<Object[]> args = new ArrayList<>(productIds.size());
+        for (Integer productId : productIds) {
+            int quantity = quantityByProduct.get(productId);
+            args.add(new Object[]{quantity, quantity, updatedAt, productId, quantity});
+        }
+        int[] updated = jdbcTemplate.batchUpdate(
+                "UPDATE product SET stock_quantity = stock_quantity - ?, " +
+                        "product_available = (stock_quantity - ? > 0), updated_at = ? " +
+                        "WHERE id = ? AND stock_quantity >= ?",
+                args);
+
+        List<Integer> insufficient = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                insufficient.add(productIds.get(i));
+            }
+        }
+        return insufficient;
+    }
+
+    public void insertItems(long orderId, List<ItemRow> items) {
+        List<Object[]> args = new ArrayList<>(items.size());
+        for (ItemRow item : items) {
+            args.add(new Object[]{orderId, item.productId(), item.quantity(), item.totalPrice()});
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO order_item (order_id, product_id, quantity, total_price) VALUES (?, ?, ?, ?)",
+                args);
+    }
+
+    /**
+     * Moves every order in orderIds whose status is one of fromStatuses to toStatus, in one
+     * set-based statement. No entities are loaded; rows are locked only for the update.
+     *
+     * @return previous status per updated order id
+     */
+    public Map<String, String> transitionStatus(Collection<String> orderIds, Collection<String> fromStatuses, String toStatus) {
+        Map<String, String> previous = new HashMap<>();
+        jdbcTemplate.query(
+                "WITH target AS (" +
+                        "SELECT id, status FROM orders WHERE order_id = ANY(?) AND status = ANY(?) ORDER BY id FOR UPDATE) " +
+                        "UPDATE orders o SET status = ? FROM target t WHERE o.id = t.id " +
+                        "RETURNING o.order_id, t.status AS previous_status",
+                ps -> {
+                    ps.setArray(1, ps.getConnection().createArrayOf("varchar", orderIds.toArray()));
+                    ps.setArray(2, ps.getConnection().createArrayOf("varchar", fromStatuses.toArray()));
+                    ps.setString(3, toStatus);
+                },
+                rs -> {
+                    previous.put(rs.getString("order_id"), rs.getString("previous_status"));
+                });
+        return previous;
+    }
+
+    // Current status per existing order id (absent ids are not in the map)
+    public Map<String, String> findStatuses(Collection<String> orderIds) {
+        Map<String, String> statuses = new HashMap<>();
+        jdbcTemplate.query("SELECT order_id, status FROM orders WHERE order_id = ANY(?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("varchar", orderIds.toArray())),
+                rs -> {
+                    statuses.put(rs.getString("order_id"), rs.getString("status"));
+                });
+        return statuses;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.SpringTeleEcom.repo;
+
+import com.example.SpringTeleEcom.outbox.OutboxEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * JDBC access to the outbox_event table (created by DatabaseSchemaInitializer).
+ * Every method joins the caller's transaction: appends commit or roll back with the
+ * order change they describe. The relay claims, deletes and releases in short
+ * transactions of its own and publishes in between, holding neither a lock nor a connection.
+ */
+@Repository
+public class OutboxRepository {
+
+    private static final RowMapper<OutboxEvent> EVENT_MAPPER = (rs, rowNum) -> new OutboxEvent(
+            rs.getLong("id"),
+            rs.getString("aggregate_id"),
+            rs.getString("event_type"),
+            rs.getString("payload"),
+            rs.getTimestamp("created_at").toInstant());
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OutboxRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void append(String aggregateId, String type, String payloadJson, Instant createdAt) {
+        jdbcTemplate.update(
+                "INSERT INTO outbox_event (aggregate_id, event_type, payload, created_at) VALUES (?, ?, ?::jsonb, ?)",
+                aggregateId, type, payloadJson, Timestamp.from(createdAt));
+    }
+
+    public void appendAll(List<Object[]> rows) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO outbox_event (aggregate_id, event_type, payload, created_at) VALUES (?, ?, ?::jsonb, ?)",
+                rows);
+    }
+
+    /**
+     * Claims and returns up to limit of the oldest unclaimed events (or events whose claim
+     * has lapsed) by setting their lease, in the caller's transaction. Once that commits,
+     * the rows are free again for DELETE / release while other relays skip them until the
+     * lease ends; rows being claimed concurrently are skipped rather than waited on.
+     */
+    public List<OutboxEvent> claimBatch(int limit, Duration lease) {
+        return jdbcTemplate.query(
+                "WITH claimed AS (UPDATE outbox_event SET claimed_until = now() + ? * interval '1 millisecond' " +
+                        "WHERE id IN (SELECT id FROM outbox_event " +
+                        "WHERE claimed_until IS NULL OR claimed_until < now() " +
+                        "ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED) " +
+                        "RETURNING id, aggregate_id, event_type, payload, created_at) " +
+                        "SELECT id, aggregate_id, event_type, payload::text AS payload, created_at FROM claimed ORDER BY id",
+                EVENT_MAPPER, (double) lease.toMillis(), limit);
+    }
+
+    // Hands claimed events back after a failed publish so the next run retries them at once
+    public void release(List<Long> ids) {
+        jdbcTemplate.update("UPDATE outbox_event SET claimed_until = NULL WHERE id = ANY(?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids.toArray())));
+    }
+
+    public void delete(List<Long> ids) {
+        jdbcTemplate.update("DELETE FROM outbox_event WHERE id = ANY(?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids.toArray())));
+    }
+}
@@ -1,17 +1,117 @@
 package com.example.SpringTeleEcom.repo;
 
 import com.example.SpringTeleEcom.model.Product;
+import com.example.SpringTeleEcom.model.dto.ProductSummary;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 public interface ProductRepo extends JpaRepository<Product, Integer> {
 
-    @Query("SELECT p from Product p WHERE " +
-            "LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-            "LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-            "LOWER(p.brand) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-            "LOWER(p.category) LIKE LOWER(CONCAT('%', :keyword, '%'))")
-    List<Product> findByProductNameContaining(String keyword);
+    // Column projection for list views - never reads the image bytes
+    String SUMMARY_SELECT = "SELECT new com.example.SpringTeleEcom.model.dto.ProductSummary(" +
+            "p.id, p.name, p.description, p.brand, p.price, p.category, p.releaseDate, " +
+            "p.productAvailable, p.stockQuantity, p.imageName, p.imageType, p.imageHash, p.imageUpdatedAt, " +
+            "CASE WHEN p.imageHash IS NOT NULL OR p.imageData IS NOT NULL THEN true ELSE false END) " +
+            "FROM Product p ";
+
+    @Query(SUMMARY_SELECT + "ORDER BY p.id")
+    List<ProductSummary> findAllSummaries();
+
+    @Query(SUMMARY_SELECT + "WHERE p.id = :id")
+    Optional<ProductSummary> findSummaryById(@Param("id") int id);
+
+    @Query(SUMMARY_SELECT + "WHERE p.id IN :ids")
+    List<ProductSummary> findSummariesByIdIn(@Param("ids") Collection<Integer> ids);
+
+    // Legacy blob column - only read for rows not yet moved to the ImageStore
+    @Query("SELECT p.imageData FROM Product p WHERE p.id = :id")
+    byte[] findImageDataById(@Param("id") int id);
+
+    @Query("SELECT p.id FROM Product p WHERE p.imageData IS NOT NULL AND p.id > :afterId ORDER BY p.id")
+    List<Integer> findIdsWithLegacyImageAfter(@Param("afterId") int afterId, Pageable limit);
+
+    @Modifying
+    @Query("UPDATE Product p SET p.imageHash = :imageHash, p.imageData = null, " +
+            "p.imageUpdatedAt = COALESCE(p.imageUpdatedAt, :now), p.updatedAt = :now WHERE p.id = :id")
+    int moveImageToStore(@Param("id") int id, @Param("imageHash") String imageHash, @Param("now") Instant now);
+
+    // Content-addressed images may be shared, so only delete from the store when unreferenced
+    long countByImageHash(String imageHash);
+
+    // ================== STREAMING EXPORT ==================
+    // Server-side cursor: Postgres only streams when the fetch size is set and the
+    // statement runs inside a transaction (the pool is not auto-commit). Must be closed.
+
+    String EXPORT_FETCH_SIZE = "500";
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query(SUMMARY_SELECT + "ORDER BY p.id")
+    Stream<ProductSummary> streamAllSummaries();
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query(SUMMARY_SELECT + "WHERE p.updatedAt > :since ORDER BY p.id")
+    Stream<ProductSummary> streamSummariesUpdatedSince(@Param("since") Instant since);
+
+    // ================== KEYSET PAGINATION ==================
+    // Each sort key has a first-page query and an "after (value, id)" query.
+    // The id tie-breaker keeps the order total, so pages never overlap or skip rows.
+    // "After" is a row-value comparison, which Postgres turns into a range condition on the
+    // (value, id) index - an OR chain would make it scan from the start of the index.
+    // Nullable keys sort last; that tail is its own "after id" query, which the service
+    // runs once the non-null keys run out.
+
+    @Query(SUMMARY_SELECT + "ORDER BY p.id")
+    List<ProductSummary> findSummariesOrderById(Pageable limit);
+
+    @Query(SUMMARY_SELECT + "WHERE p.id > :afterId ORDER BY p.id")
+    List<ProductSummary> findSummariesAfterId(@Param("afterId") int afterId, Pageable limit);
+
+    @Query(SUMMARY_SELECT + "ORDER BY p.price ASC NULLS LAST, p.id")
+    List<ProductSummary> findSummariesOrderByPrice(Pageable limit);
+
+    @Query(SUMMARY_SELECT + "WHERE (p.price, p.id) > (:price, :afterId) ORDER BY p.price, p.id")
+    List<ProductSummary> findSummariesAfterPrice(@Param("price") BigDecimal price,
+                                                 @Param("afterId") int afterId,
+                                                 Pageable limit);
+
+    @Query(SUMMARY_SELECT + "WHERE p.price IS NULL AND p.id > :afterId ORDER BY p.id")
+    List<ProductSummary> findSummariesAfterNullPrice(@Param("afterId") int afterId, Pageable limit);
+
+    @Query(SUMMARY_SELECT + "ORDER BY p.name ASC NULLS LAST, p.id")
+    List<ProductSummary> findSummariesOrderByName(Pageable limit);
+
+    @Query(SUMMARY_SELECT + "WHERE (p.name, p.id) > (:name, :afterId) ORDER BY p.name, p.id")
+    List<ProductSummary> findSummariesAfterName(@Param("name") String name,
+                                                @Param("afterId") int afterId,
+                                                Pageable limit);
+
+    @Query(SUMMARY_SELECT + "WHERE p.name IS NULL AND p.id > :afterId ORDER BY p.id")
+    List<ProductSummary> findSummariesAfterNullName(@Param("afterId") int afterId, Pageable limit);
+
+    @Query(SUMMARY_SELECT + "ORDER BY p.releaseDate ASC NULLS LAST, p.id")
+    List<ProductSummary> findSummariesOrderByReleaseDate(Pageable limit);
+
+    @Query(SUMMARY_SELECT + "WHERE (p.releaseDate, p.id) > (:releaseDate, :afterId) ORDER BY p.releaseDate, p.id")
+    List<ProductSummary> findSummariesAfterReleaseDate(@Param("releaseDate") Date releaseDate,
+                                                       @Param("afterId") int afterId,
+                                                       Pageable limit);
+
+    @Query(SUMMARY_SELECT + "WHERE p.releaseDate IS NULL AND p.id > :afterId ORDER BY p.id")
+    List<ProductSummary> findSummariesAfterNullReleaseDate(@Param("afterId") int afterId, Pageable limit);
 }
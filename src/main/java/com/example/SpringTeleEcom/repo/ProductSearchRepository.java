@@ -0,0 +1,115 @@
+package com.example.SpringTeleEcom.repo;
+
+import com.example.SpringTeleEcom.model.dto.ProductSummary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Ranked full-text product search over the generated product.search_vector column
+ * (see DatabaseSchemaInitializer). Matching is a GIN index lookup, so only matching
+ * rows are ranked and sorted - cost follows the result size, not the catalog size.
+ */
+@Repository
+public class ProductSearchRepository {
+
+    // Text search configuration shared by the generated column and the queries
+    public static final String SEARCH_CONFIG = "english";
+
+    // ts_rank weights for {D, C, B, A}: description = C, category = B, name/brand = A
+    private static final String RANK_WEIGHTS = "'{0.1, 0.2, 0.4, 1.0}'";
+
+    // Ranks every match once in the inner query; the keyset condition and LIMIT are appended
+    private static final String SEARCH_SQL =
+            "SELECT * FROM (" +
+            "SELECT p.id, p.name, p.description, p.brand, p.price, p.category, p.release_date, " +
+            "p.product_available, p.stock_quantity, p.image_name, p.image_type, p.image_hash, " +
+            "p.image_updated_at, (p.image_hash IS NOT NULL OR p.image_data IS NOT NULL) AS has_image, " +
+            "ts_rank(" + RANK_WEIGHTS + ", p.search_vector, q) AS rank " +
+            "FROM product p, to_tsquery('" + SEARCH_CONFIG + "', ?) q " +
+            "WHERE p.search_vector @@ q) hits ";
+
+    private static final String AFTER_SQL = "WHERE rank < ?::real OR (rank = ?::real AND id > ?) ";
+
+    private static final String ORDER_SQL = "ORDER BY rank DESC, id LIMIT ?";
+
+    /** A search result with the rank it was ordered by (needed to continue after it). */
+    public record Hit(ProductSummary product, float rank) {}
+
+    private static final RowMapper<Hit> HIT_MAPPER = (rs, rowNum) -> {
+        Timestamp imageUpdatedAt = rs.getTimestamp("image_updated_at");
+        return new Hit(new ProductSummary(
+                rs.getInt("id"),
+                rs.getString("name"),
+                rs.getString("description"),
+                rs.getString("brand"),
+                rs.getBigDecimal("price"),
+                rs.getString("category"),
+                rs.getTimestamp("release_date"),
+                rs.getBoolean("product_available"),
+                rs.getInt("stock_quantity"),
+                rs.getString("image_name"),
+                rs.getString("image_type"),
+                rs.getString("image_hash"),
+                imageUpdatedAt != null ? imageUpdatedAt.toInstant() : null,
+                rs.getBoolean("has_image")),
+                rs.getFloat("rank"));
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProductSearchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Products matching every term of the keyword, each as a prefix (so "sams gal"
+     * finds "Samsung Galaxy"), best match first.
+     *
+     * @param afterRank rank of the previous page's last row (with afterId), or null from the top
+     * @param limit maximum rows; only a top-N sort is kept, however many products match
+     */
+    @Transactional(readOnly = true)
+    public List<Hit> search(String keyword, Float afterRank, Integer afterId, int limit) {
+        String tsQuery = toPrefixQuery(keyword);
+        if (tsQuery == null) {
+            return List.of();
+        }
+        StringBuilder sql = new StringBuilder(SEARCH_SQL);
+        List<Object> args = new ArrayList<>(5);
+        args.add(tsQuery);
+        if (afterRank != null) {
+            sql.append(AFTER_SQL);
+            args.add(afterRank);
+            args.add(afterRank);
+            args.add(afterId);
+        }
+        sql.append(ORDER_SQL);
+        args.add(limit);
+        return jdbcTemplate.query(sql.toString(), HIT_MAPPER, args.toArray());
+    }
+
+    /**
+     * Turns free text into a safe to_tsquery expression: "Galaxy S2" -> "galaxy:* & s2:*".
+     * Everything except letters and digits is dropped, so user input can never inject
+     * tsquery operators. Returns null when nothing searchable is left.
+     */
+    static String toPrefixQuery(String keyword) {
+        if (keyword == null) {
+            return null;
+        }
+        List<String> terms = new ArrayList<>();
+        for (String token : keyword.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                terms.add(token + ":*");
+            }
+        }
+        return terms.isEmpty() ? null : String.join(" & ", terms);
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.SpringTeleEcom.repo;
+
+import com.example.SpringTeleEcom.model.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    // Still-valid revocations (startup load)
+    List<RevokedToken> findByExpiresAtAfter(Instant now);
+
+    // Revocations inserted after the given sequence number, possibly by another instance
+    List<RevokedToken> findBySeqGreaterThan(long seq);
+
+    @Query("SELECT coalesce(max(t.seq), 0) FROM RevokedToken t")
+    long findMaxSeq();
+
+    @Modifying
+    @Query("DELETE FROM RevokedToken t WHERE t.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
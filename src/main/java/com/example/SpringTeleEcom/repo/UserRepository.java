@@ -1,10 +1,32 @@
 package com.example.SpringTeleEcom.repo;
 
 import com.example.SpringTeleEcom.model.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
+
+    // Roles are lazy on the entity; every caller of this needs them, so fetch them in the same query
+    @EntityGraph(attributePaths = "roles")
     Optional<User> findByUsername(String username);
+
+    // For callers that only need the key (order reads and writes)
+    @Query("SELECT u.id FROM User u WHERE u.username = :username")
+    Optional<Long> findIdByUsername(@Param("username") String username);
+
+    @Query("SELECT u.tokenVersion FROM User u WHERE u.username = :username")
+    Optional<Long> findTokenVersionByUsername(@Param("username") String username);
+
+    @Modifying
+    @Query("UPDATE User u SET u.tokenVersion = u.tokenVersion + 1 WHERE u.username = :username")
+    int incrementTokenVersion(@Param("username") String username);
+
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.username = :username")
+    int updatePassword(@Param("username") String username, @Param("password") String password);
 }
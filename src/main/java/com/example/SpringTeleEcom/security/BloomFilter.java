@@ -0,0 +1,89 @@
+package com.example.SpringTeleEcom.security;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Concurrent Bloom filter over token ids (jti).
+ *
+ * mightContain never returns false for an added id; it returns true for an id that was
+ * never added with roughly the configured false-positive rate. Adds set bits with CAS, so
+ * readers never lock. Bits cannot be cleared - TokenRevocationList rebuilds a fresh filter
+ * once expired ids have been dropped.
+ *
+ * jti values issued by JwtService are UUIDs: their two random halves serve directly as the
+ * two base hashes (Kirsch-Mitzenmacher double hashing), so a lookup allocates nothing.
+ */
+final class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bits;
+    private final int hashes;
+
+    BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        long n = Math.max(1, expectedInsertions);
+        // m = -n ln p / (ln 2)^2, k = m/n ln 2
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bits = Math.max(64, m);
+        this.hashes = Math.max(1, (int) Math.round((double) bits / n * Math.log(2)));
+        this.words = new AtomicLongArray(Math.toIntExact((bits + 63) / 64));
+    }
+
+    void add(String id) {
+        long h1 = hash1(id);
+        long h2 = hash2(id);
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bits);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = words.get(word);
+                if ((current & mask) != 0) {
+                    break;
+                }
+            } while (!words.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    boolean mightContain(String id) {
+        long h1 = hash1(id);
+        long h2 = hash2(id);
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bits);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Canonical UUID text: read the hex digits in place; anything else: a string hash
+    private static long hash1(String id) {
+        return isUuid(id) ? hex(id, 0, 8) << 32 | hex(id, 9, 13) << 16 | hex(id, 14, 18) : mix(id.hashCode());
+    }
+
+    private static long hash2(String id) {
+        return isUuid(id) ? (hex(id, 19, 23) << 48 | hex(id, 24, 36)) | 1 : mix(~id.hashCode()) | 1;
+    }
+
+    private static boolean isUuid(String id) {
+        return id.length() == 36 && id.charAt(8) == '-' && id.charAt(13) == '-'
+                && id.charAt(18) == '-' && id.charAt(23) == '-';
+    }
+
+    private static long hex(String s, int from, int to) {
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = Character.digit(s.charAt(i), 16);
+            value = (value << 4) | (digit < 0 ? 0 : digit);
+        }
+        return value;
+    }
+
+    // SplitMix64 finalizer: spreads a 32-bit hash over 64 bits
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
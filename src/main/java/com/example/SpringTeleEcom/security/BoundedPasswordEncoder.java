@@ -0,0 +1,125 @@
+package com.example.SpringTeleEcom.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs a (BCrypt) PasswordEncoder on a small fixed pool instead of the calling thread.
+ *
+ * Hashing is CPU-bound and deliberately slow, so a login or registration burst on
+ * Tomcat threads can occupy every core. Here at most {@code threads} hashes run at a
+ * time and at most {@code queueCapacity} wait; anything beyond that, or a job still
+ * queued after {@code maxWait}, fails fast with {@link PasswordHashingBusyException}
+ * (429 + Retry-After) rather than piling up. The caller still blocks until its own
+ * hash is done, but it no longer competes for CPU with catalog and order traffic.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, AutoCloseable {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final int threads;
+    private final Duration maxWait;
+
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejected;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate,
+                                  int threads,
+                                  int queueCapacity,
+                                  Duration maxWait,
+                                  MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.threads = Math.max(1, threads);
+        this.maxWait = maxWait;
+
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(this.threads, this.threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("auth.hashing.queue.depth", executor, pool -> pool.getQueue().size())
+                .description("Password hashes waiting for a hashing thread")
+                .register(meterRegistry);
+        this.encodeTimer = Timer.builder("auth.hashing").tag("op", "encode").register(meterRegistry);
+        this.matchesTimer = Timer.builder("auth.hashing").tag("op", "matches").register(meterRegistry);
+        this.rejected = Counter.builder("auth.hashing.rejected").register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> encodeTimer.recordCallable(() -> delegate.encode(rawPassword)));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> matchesTimer.recordCallable(() -> delegate.matches(rawPassword, encodedPassword)));
+    }
+
+    /**
+     * True when the stored hash is weaker than the configured cost, so a successful
+     * login re-hashes it. Skipped while hashes are queueing: the upgrade costs a second
+     * hash, and failing an otherwise good login over it would be worse than waiting.
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return executor.getQueue().isEmpty() && delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw busy();
+        }
+        try {
+            return future.get(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            throw busy();
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // Retry-After ~ time for the pool to work through what is queued now
+    private PasswordHashingBusyException busy() {
+        rejected.increment();
+        double meanMillis = Math.max(matchesTimer.mean(TimeUnit.MILLISECONDS), encodeTimer.mean(TimeUnit.MILLISECONDS));
+        long backlogMillis = (long) (meanMillis * (executor.getQueue().size() + threads) / threads);
+        long retryAfter = Math.max(1, TimeUnit.MILLISECONDS.toSeconds(backlogMillis + 999));
+        return new PasswordHashingBusyException("Too many sign-in requests, please retry shortly", retryAfter);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
@@ -4,6 +4,7 @@ import com.example.SpringTeleEcom.model.Role;
 import com.example.SpringTeleEcom.model.User;
 import com.example.SpringTeleEcom.repo.RoleRepository;
 import com.example.SpringTeleEcom.repo.UserRepository;
+import com.example.SpringTeleEcom.service.UserLookupCache;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.*;
 import org.springframework.beans.factory.annotation.Value;
@@ -22,17 +23,20 @@ public class CustomOAuth2SuccessHandler implements org.springframework.security.
     private final JwtService jwtService;
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
+    private final UserLookupCache userLookupCache;
     private final String frontendRedirectUri;
 
     public CustomOAuth2SuccessHandler(
             JwtService jwtService,
             UserRepository userRepository,
             RoleRepository roleRepository,
+            UserLookupCache userLookupCache,
             @Value("${app.oauth2.redirect-uri}") String frontendRedirectUri
     ) {
         this.jwtService = jwtService;
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
+        this.userLookupCache = userLookupCache;
         this.frontendRedirectUri = frontendRedirectUri;
     }
 
@@ -115,6 +119,7 @@ public class CustomOAuth2SuccessHandler implements org.springframework.security.
                     .build();
 
             user = userRepository.save(user);
+            userLookupCache.invalidate(username);
             System.out.println("✅ User created and saved:");
             System.out.println("   User ID: " + user.getId());
             System.out.println("   Username: " + user.getUsername());
@@ -126,7 +131,7 @@ public class CustomOAuth2SuccessHandler implements org.springframework.security.
 
         System.out.println("   Is Admin: " + isAdmin);
 
-        String token = jwtService.generateToken(user.getUsername());
+        String token = jwtService.generateToken(user);
 
         System.out.println("🎫 JWT Token generated for: " + user.getUsername());
         System.out.println("   Token length: " + token.length());
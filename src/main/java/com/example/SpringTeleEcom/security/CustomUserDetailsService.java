@@ -1,18 +1,20 @@
 package com.example.SpringTeleEcom.security;
 
-import com.example.SpringTeleEcom.model.User;
 import com.example.SpringTeleEcom.repo.UserRepository;
+import com.example.SpringTeleEcom.service.UserLookupCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.*;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
+    private final UserLookupCache userLookupCache;
     private final UserRepository userRepository;
 
     @Override
@@ -21,29 +23,42 @@ public class CustomUserDetailsService implements UserDetailsService {
 
         System.out.println("🔍 CustomUserDetailsService - Loading user: " + username);
 
-        User user = userRepository.findByUsername(username)
+        UserLookupCache.CachedUser user = userLookupCache.find(username)
                 .orElseThrow(() -> {
                     System.err.println("❌ User NOT FOUND in database: " + username);
                     return new UsernameNotFoundException("User not found: " + username);
                 });
 
         System.out.println("✅ User found: " + username);
-        System.out.println("   Roles: " + user.getRoles().size());
+        System.out.println("   Roles: " + user.roles().size());
 
-        if (user.getRoles().isEmpty()) {
+        if (user.roles().isEmpty()) {
             System.err.println("⚠️  WARNING: User has NO ROLES: " + username);
         }
 
-        user.getRoles().forEach(role ->
-            System.out.println("   - " + role.getName())
+        user.roles().forEach(role ->
+            System.out.println("   - " + role)
         );
 
         return new org.springframework.security.core.userdetails.User(
-                user.getUsername(),
-                user.getPassword() != null ? user.getPassword() : "",  // Handle null password for OAuth users
-                user.getRoles().stream()
-                        .map(role -> new SimpleGrantedAuthority(role.getName()))
+                user.username(),
+                user.password() != null ? user.password() : "",  // Handle null password for OAuth users
+                user.roles().stream()
+                        .map(SimpleGrantedAuthority::new)
                         .collect(Collectors.toList())
         );
     }
+
+    // Called by the authentication provider after a successful login whose stored hash
+    // is below the configured BCrypt strength; newPassword is the re-hashed password
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepository.updatePassword(user.getUsername(), newPassword);
+        userLookupCache.invalidate(user.getUsername());
+        System.out.println("🔐 Upgraded password hash for user: " + user.getUsername());
+        return org.springframework.security.core.userdetails.User.withUserDetails(user)
+                .password(newPassword)
+                .build();
+    }
 }
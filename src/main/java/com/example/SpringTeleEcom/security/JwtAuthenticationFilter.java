@@ -1,5 +1,6 @@
 package com.example.SpringTeleEcom.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.*;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -17,7 +18,8 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final CustomUserDetailsService userDetailsService;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final TokenRevocationList revocationList;
 
     @Override
     protected void doFilterInternal(
@@ -38,27 +40,44 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         try {
             String token = header.substring(7);
-            String username = jwtService.getUsernameFromToken(token);
+            // One verification per request (signature + expiry); throws if the token is invalid
+            Claims claims = jwtService.verify(token);
+            String username = claims.getSubject();
 
             System.out.println("👤 Extracted username from token: " + username);
 
             if (username != null &&
                     SecurityContextHolder.getContext().getAuthentication() == null) {
 
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-
-                if (jwtService.validateToken(token)) {
-                    UsernamePasswordAuthenticationToken authToken =
-                            new UsernamePasswordAuthenticationToken(
-                                    userDetails,
-                                    null,
-                                    userDetails.getAuthorities()
-                            );
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
-                    System.out.println("✅ Authentication successful for user: " + username);
-                } else {
-                    System.out.println("❌ Token validation failed for user: " + username);
+                // Revocation check: an in-memory version lookup instead of loading the user.
+                // Tokens without a version predate roles-in-claims and must be renewed by logging in again.
+                Long tokenVersion = jwtService.getTokenVersion(claims);
+                if (tokenVersion == null || !tokenVersionRegistry.isCurrent(username, tokenVersion)) {
+                    System.out.println("❌ Token revoked or outdated for user: " + username);
+                    filterChain.doFilter(request, response);
+                    return;
                 }
+                // Single-token revocation (logout): in-memory Bloom filter, no I/O unless it hits
+                if (revocationList.isRevoked(claims.getId())) {
+                    System.out.println("❌ Token has been logged out for user: " + username);
+                    filterChain.doFilter(request, response);
+                    return;
+                }
+
+                // Principal and authorities come from the verified claims - no database access
+                UserDetails userDetails = User.withUsername(username)
+                        .password("")
+                        .authorities(jwtService.getAuthorities(claims))
+                        .build();
+
+                UsernamePasswordAuthenticationToken authToken =
+                        new UsernamePasswordAuthenticationToken(
+                                userDetails,
+                                null,
+                                userDetails.getAuthorities()
+                        );
+                SecurityContextHolder.getContext().setAuthentication(authToken);
+                System.out.println("✅ Authentication successful for user: " + username);
             }
         } catch (Exception e) {
             // Log the JWT error but don't block the request
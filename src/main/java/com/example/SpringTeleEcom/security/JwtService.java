@@ -1,23 +1,61 @@
 package com.example.SpringTeleEcom.security;
 
+import com.example.SpringTeleEcom.model.Role;
+import com.example.SpringTeleEcom.model.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
+import java.util.UUID;
 
 @Component
 public class JwtService {
 
+    // Granted authorities ("ROLE_USER", ...) and the user's token version at issue time
+    public static final String ROLES_CLAIM = "roles";
+    public static final String VERSION_CLAIM = "ver";
+
     private final SecretKey key;
     private final long jwtExpirationMs;
+    private final TokenVersionRegistry tokenVersionRegistry;
+
+    // Immutable and thread-safe: built once instead of per call
+    private final JwtParser parser;
+
+    // SHA-256(token) -> claims of a token whose signature and expiry were already checked.
+    // Entries never outlive the token itself, so a hit is as good as a fresh verification.
+    private final Cache<String, Claims> verified;
+    private final long maxCacheNanos;
 
     public JwtService(
             @Value("${app.jwt.secret}") String secret,
-            @Value("${app.jwt.expiration-ms:86400000}") long jwtExpirationMs
+            @Value("${app.jwt.expiration-ms:86400000}") long jwtExpirationMs,
+            @Value("${app.jwt.verify-cache.max-size:10000}") long verifyCacheMaxSize,
+            @Value("${app.jwt.verify-cache.ttl:5m}") Duration verifyCacheTtl,
+            TokenVersionRegistry tokenVersionRegistry,
+            MeterRegistry meterRegistry
     ) {
 
         // Enforce strong keys (>= 32 characters)
@@ -30,38 +68,130 @@ public class JwtService {
 
         this.key = Keys.hmacShaKeyFor(secret.getBytes());
         this.jwtExpirationMs = jwtExpirationMs;
+        this.tokenVersionRegistry = tokenVersionRegistry;
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build();
+
+        this.maxCacheNanos = verifyCacheTtl.toNanos();
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(verifyCacheMaxSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String tokenHash, Claims claims, long currentTime) {
+                        return untilExpiry(claims);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String tokenHash, Claims claims, long currentTime, long currentDuration) {
+                        return untilExpiry(claims);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String tokenHash, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verified, "jwt.verified");
     }
 
-    public String generateToken(String username) {
+    /**
+     * Issues a token carrying everything JwtAuthenticationFilter needs, so requests
+     * authenticate from the claims alone: id, subject, roles and the current token version.
+     */
+    public String generateToken(String username, Collection<String> roles) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpirationMs);
 
         return Jwts.builder()
+                // jti: lets a single token be revoked (TokenRevocationList)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(username)
+                .claim(ROLES_CLAIM, List.copyOf(roles))
+                .claim(VERSION_CLAIM, tokenVersionRegistry.currentVersion(username))
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
                 .signWith(key, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    /**
+     * Checks signature and expiry once and returns the token's claims.
+     * Recently verified tokens are answered from the cache (one SHA-256 and a lookup).
+     * The returned claims are shared between requests: read them, never modify them.
+     *
+     * @throws JwtException if the token is malformed, forged or expired
+     */
+    public Claims verify(String token) {
+        String tokenHash = sha256(token);
+        Claims claims = verified.getIfPresent(tokenHash);
+        if (claims != null) {
+            // Expiry is enforced by the cache already; this covers a clock read racing the eviction
+            if (claims.getExpiration() == null || claims.getExpiration().after(new Date())) {
+                return claims;
+            }
+            verified.invalidate(tokenHash);
+            throw new ExpiredJwtException(null, claims, "JWT expired at " + claims.getExpiration());
+        }
+        claims = parser.parseClaimsJws(token).getBody();
+        verified.put(tokenHash, claims);
+        return claims;
+    }
+
+    public String generateToken(User user) {
+        return generateToken(user.getUsername(), user.getRoles().stream().map(Role::getName).toList());
+    }
+
+    /**
+     * Authorities from the roles claim; empty when the token predates roles in claims.
+     */
+    public List<GrantedAuthority> getAuthorities(Claims claims) {
+        Object roles = claims.get(ROLES_CLAIM);
+        if (!(roles instanceof Collection<?> names)) {
+            return List.of();
+        }
+        return names.stream()
+                .map(name -> (GrantedAuthority) new SimpleGrantedAuthority(String.valueOf(name)))
+                .toList();
+    }
+
+    /**
+     * Token version from the claims, or null for tokens issued before versions existed.
+     */
+    public Long getTokenVersion(Claims claims) {
+        Object version = claims.get(VERSION_CLAIM);
+        return version instanceof Number number ? number.longValue() : null;
+    }
+
     public String getUsernameFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        return verify(token).getSubject();
     }
 
     public boolean validateToken(String token) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(token);
+            verify(token);
             return true;
         } catch (Exception ex) {
             return false;
         }
     }
+
+    private long untilExpiry(Claims claims) {
+        if (claims.getExpiration() == null) {
+            return maxCacheNanos;
+        }
+        long untilExpiry = Duration.ofMillis(claims.getExpiration().getTime() - System.currentTimeMillis()).toNanos();
+        return Math.max(0, Math.min(untilExpiry, maxCacheNanos));
+    }
+
+    private static String sha256(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
 }
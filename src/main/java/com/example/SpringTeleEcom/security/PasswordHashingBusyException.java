@@ -0,0 +1,19 @@
+package com.example.SpringTeleEcom.security;
+
+/**
+ * The password hashing executor is saturated; the client should retry after
+ * {@link #getRetryAfterSeconds()}.
+ */
+public class PasswordHashingBusyException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public PasswordHashingBusyException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
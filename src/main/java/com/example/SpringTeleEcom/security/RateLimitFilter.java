@@ -0,0 +1,220 @@
+package com.example.SpringTeleEcom.security;
+
+import com.example.SpringTeleEcom.config.RateLimitProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-client request limits for the routes listed under app.rate-limit.rules.
+ *
+ * Each (route, client) pair is a token bucket kept as a single AtomicLong using GCRA:
+ * the value is the time at which the client's bucket is full again, and a request is
+ * admitted by advancing it one emission interval with a CAS - no locks, no timer, no
+ * per-request objects beyond the client key. Buckets live in a size-bounded Caffeine
+ * map per route and expire once idle for a whole period, when they would be full anyway.
+ *
+ * Runs before JwtAuthenticationFilter, so USER-keyed routes read the subject from the
+ * bearer token themselves (a hit in JwtService's verify cache). Every limited response
+ * carries RateLimit-Limit / -Remaining / -Reset / -Policy; rejected ones get 429 with
+ * Retry-After. IP keys are getRemoteAddr(): Tomcat's RemoteIpValve only takes it from
+ * X-Forwarded-For when the request came through a trusted proxy, so a client cannot pick
+ * a fresh bucket by sending the header itself.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    static final String LIMIT_HEADER = "RateLimit-Limit";
+    static final String REMAINING_HEADER = "RateLimit-Remaining";
+    static final String RESET_HEADER = "RateLimit-Reset";
+    static final String POLICY_HEADER = "RateLimit-Policy";
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final boolean enabled;
+    private final List<Route> routes;
+    private final JwtService jwtService;
+
+    private final Counter admitted;
+    private final Counter rejected;
+
+    public RateLimitFilter(RateLimitProperties properties, JwtService jwtService, MeterRegistry meterRegistry) {
+        this.jwtService = jwtService;
+        this.routes = properties.rules().stream()
+                .map(rule -> new Route(rule, properties.maxClients()))
+                .toList();
+        this.enabled = properties.enabled() && !routes.isEmpty();
+
+        this.admitted = Counter.builder("http.rate.limit").tag("result", "admitted").register(meterRegistry);
+        this.rejected = Counter.builder("http.rate.limit").tag("result", "rejected").register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        Route route = match(request);
+        if (route == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long now = System.nanoTime();
+        AtomicLong bucket = route.buckets.get(clientKey(route, request), key -> new AtomicLong(System.nanoTime()));
+        long result = acquire(bucket, now, route.emissionNanos, route.periodNanos);
+
+        response.setHeader(LIMIT_HEADER, route.limitHeader);
+        response.setHeader(POLICY_HEADER, route.policyHeader);
+
+        if (result < 0) {
+            rejected.increment();
+            long retryAfter = Math.max(1, ceilSeconds(-result));
+            response.setHeader(REMAINING_HEADER, "0");
+            response.setHeader(RESET_HEADER, Long.toString(retryAfter));
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+            response.setStatus(429);
+            response.setContentType("application/json");
+            response.getWriter().write("{\"error\": \"Too Many Requests\", \"message\": \"Rate limit exceeded, retry in "
+                    + retryAfter + "s\"}");
+            return;
+        }
+
+        admitted.increment();
+        response.setHeader(REMAINING_HEADER, Long.toString((route.periodNanos - result) / route.emissionNanos));
+        response.setHeader(RESET_HEADER, Long.toString(ceilSeconds(result)));
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * GCRA step. {@code tat} holds the instant (nanoTime) at which the bucket is full again.
+     *
+     * @return nanos until the bucket is full again if admitted (always > 0),
+     *         or minus the nanos until one request would be admitted
+     */
+    static long acquire(AtomicLong tat, long now, long emissionNanos, long periodNanos) {
+        while (true) {
+            long current = tat.get();
+            // Compared by difference: nanoTime may be negative
+            long next = (current - now > 0 ? current : now) + emissionNanos;
+            long backlog = next - now;
+            if (backlog > periodNanos) {
+                return -(backlog - periodNanos);
+            }
+            if (tat.compareAndSet(current, next)) {
+                return backlog;
+            }
+        }
+    }
+
+    private Route match(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        PathContainer path = null;
+        for (Route route : routes) {
+            if (!uri.startsWith(route.literalPrefix)) {
+                continue;
+            }
+            if (route.method != null && !route.method.equals(request.getMethod())) {
+                continue;
+            }
+            if (path == null) {
+                path = PathContainer.parsePath(uri);
+            }
+            if (route.pattern.matches(path)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    private String clientKey(Route route, HttpServletRequest request) {
+        if (route.key == RateLimitProperties.Key.USER) {
+            String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+            if (header != null && header.startsWith("Bearer ")) {
+                try {
+                    return jwtService.verify(header.substring(7)).getSubject();
+                } catch (JwtException e) {
+                    // Rejected later by JwtAuthenticationFilter; limit it by address meanwhile
+                }
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    private static long ceilSeconds(long nanos) {
+        return (nanos + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND;
+    }
+
+    private static final class Route {
+
+        final PathPattern pattern;
+        // Pattern text up to its first wildcard: a cheap pre-check before the full match
+        final String literalPrefix;
+        final String method;
+        final RateLimitProperties.Key key;
+        final long periodNanos;
+        final long emissionNanos;
+        final String limitHeader;
+        final String policyHeader;
+        final Cache<String, AtomicLong> buckets;
+
+        Route(RateLimitProperties.Rule rule, long maxClients) {
+            if (rule.pattern() == null || rule.pattern().isBlank()) {
+                throw new IllegalArgumentException("app.rate-limit.rules[].pattern is required");
+            }
+            if (rule.limit() < 1 || rule.period().isNegative() || rule.period().isZero()) {
+                throw new IllegalArgumentException("Rate limit for " + rule.pattern() + " needs limit >= 1 and a positive period");
+            }
+            this.pattern = PathPatternParser.defaultInstance.parse(rule.pattern());
+            this.literalPrefix = literalPrefix(rule.pattern());
+            this.method = rule.method() == null || rule.method().isBlank() ? null : rule.method().trim().toUpperCase(Locale.ROOT);
+            this.key = rule.key();
+            this.periodNanos = rule.period().toNanos();
+            this.emissionNanos = Math.max(1, periodNanos / rule.limit());
+            this.limitHeader = Long.toString(rule.limit());
+            this.policyHeader = rule.limit() + ";w=" + Math.max(1, rule.period().toSeconds());
+            this.buckets = Caffeine.newBuilder()
+                    .maximumSize(maxClients)
+                    .expireAfterAccess(rule.period())
+                    .build();
+        }
+
+        private static String literalPrefix(String pattern) {
+            int end = pattern.length();
+            for (char wildcard : new char[]{'*', '?', '{'}) {
+                int index = pattern.indexOf(wildcard);
+                if (index >= 0 && index < end) {
+                    end = index;
+                }
+            }
+            // "/api/orders/**" also matches "/api/orders"
+            while (end > 1 && pattern.charAt(end - 1) == '/') {
+                end--;
+            }
+            return pattern.substring(0, end);
+        }
+    }
+}
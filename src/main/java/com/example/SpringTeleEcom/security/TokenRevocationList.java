@@ -0,0 +1,140 @@
+package com.example.SpringTeleEcom.security;
+
+import com.example.SpringTeleEcom.model.RevokedToken;
+import com.example.SpringTeleEcom.repo.RevokedTokenRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revoked JWT ids (logout, compromised tokens), checked on every authenticated request.
+ *
+ * Durable in the revoked_token table; answered from memory. A Bloom filter in front of an
+ * exact jti -> expiry map means the common, not-revoked case is a few bit reads with no
+ * I/O and no allocation; a Bloom hit is confirmed against the map. Entries leave when
+ * their token would have expired anyway, at which point the filter is rebuilt.
+ *
+ * Revocations by other instances arrive with the periodic sync (app.jwt.revocation.sync-interval-ms).
+ */
+@Slf4j
+@Component
+public class TokenRevocationList {
+
+    private static final long SYNC_OVERLAP_ROWS = 100;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long expectedRevocations;
+    private final double falsePositiveRate;
+
+    private final ConcurrentHashMap<String, Instant> revoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter;
+    // Highest revoked_token.seq seen; only the scheduled sync moves it after startup
+    private volatile long lastSeq;
+
+    public TokenRevocationList(RevokedTokenRepository revokedTokenRepository,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.jwt.revocation.expected-revocations:100000}") long expectedRevocations,
+                               @Value("${app.jwt.revocation.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new BloomFilter(expectedRevocations, falsePositiveRate);
+
+        Gauge.builder("jwt.revoked.tokens", revoked, ConcurrentHashMap::size)
+                .description("Revoked, not yet expired tokens held in memory")
+                .register(meterRegistry);
+    }
+
+    // Before the first request: every unexpired revocation, from every instance
+    @PostConstruct
+    void load() {
+        // Cursor first: a revocation inserted in between is then read twice rather than never
+        lastSeq = revokedTokenRepository.findMaxSeq();
+        List<RevokedToken> rows = revokedTokenRepository.findByExpiresAtAfter(Instant.now());
+        rows.forEach(this::remember);
+        log.info("🚫 Token revocation list loaded: {} revoked token(s)", rows.size());
+    }
+
+    /**
+     * Zero I/O: a Bloom miss (the usual case) answers immediately.
+     */
+    public boolean isRevoked(String jti) {
+        if (jti == null || !filter.mightContain(jti)) {
+            return false;
+        }
+        Instant expiresAt = revoked.get(jti);
+        return expiresAt != null && expiresAt.isAfter(Instant.now());
+    }
+
+    /**
+     * Revokes a token by id until its own expiry. Idempotent.
+     */
+    public void revoke(String jti, String username, Instant expiresAt) {
+        Instant now = Instant.now();
+        if (jti == null || !expiresAt.isAfter(now)) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> revokedTokenRepository.save(RevokedToken.builder()
+                .jti(jti)
+                .username(username)
+                .expiresAt(expiresAt)
+                .revokedAt(now)
+                .build()));
+        remember(jti, expiresAt);
+    }
+
+    // Picks up revocations made on other instances since the last run
+    @Scheduled(fixedDelayString = "${app.jwt.revocation.sync-interval-ms:10000}")
+    public void sync() {
+        // seq is handed out at insert, not commit: re-read a few rows behind the cursor so
+        // a revocation that committed after a higher-numbered one is not skipped
+        long since = Math.max(0, lastSeq - SYNC_OVERLAP_ROWS);
+        long highest = lastSeq;
+        for (RevokedToken row : revokedTokenRepository.findBySeqGreaterThan(since)) {
+            remember(row);
+            highest = Math.max(highest, row.getSeq());
+        }
+        lastSeq = highest;
+    }
+
+    // Drops expired revocations from memory and the table, then rebuilds the filter without them
+    @Scheduled(fixedDelayString = "${app.jwt.revocation.purge-interval-ms:600000}")
+    public void purge() {
+        Instant now = Instant.now();
+        boolean removed = revoked.values().removeIf(expiresAt -> !expiresAt.isAfter(now));
+        Integer deleted = transactionTemplate.execute(status -> revokedTokenRepository.deleteExpired(now));
+        if (removed) {
+            BloomFilter rebuilt = new BloomFilter(Math.max(expectedRevocations, revoked.size() * 2L), falsePositiveRate);
+            revoked.keySet().forEach(rebuilt::add);
+            filter = rebuilt;
+            // A revocation added while rebuilding may have missed the new filter: add it again
+            revoked.keySet().forEach(rebuilt::add);
+        }
+        if (deleted != null && deleted > 0) {
+            log.info("🧹 Purged {} expired token revocation(s)", deleted);
+        }
+    }
+
+    private void remember(RevokedToken row) {
+        remember(row.getJti(), row.getExpiresAt());
+    }
+
+    private void remember(String jti, Instant expiresAt) {
+        // Map first: a Bloom hit must always be confirmable
+        revoked.put(jti, expiresAt);
+        filter.add(jti);
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.SpringTeleEcom.security;
+
+import com.example.SpringTeleEcom.repo.UserRepository;
+import com.example.SpringTeleEcom.service.UserLookupCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+
+/**
+ * Current token version per user (users.token_version), kept in memory.
+ *
+ * A JWT is accepted only while its "ver" claim equals the user's current version, so
+ * {@link #revokeAll} invalidates every token issued so far with one row update - no
+ * per-request user load. Versions are loaded on first use and re-read in the background
+ * every app.jwt.token-version.refresh, which bounds how long another instance keeps
+ * accepting a revoked token; the instance that revokes sees it immediately.
+ */
+@Component
+public class TokenVersionRegistry {
+
+    // Version of users that do not exist (deleted): matches no token
+    static final long UNKNOWN_USER = -1;
+
+    private final UserRepository userRepository;
+    private final UserLookupCache userLookupCache;
+    private final LoadingCache<String, Long> versions;
+
+    public TokenVersionRegistry(UserRepository userRepository,
+                                UserLookupCache userLookupCache,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.jwt.token-version.max-users:100000}") long maxUsers,
+                                @Value("${app.jwt.token-version.refresh:30s}") Duration refresh) {
+        this.userRepository = userRepository;
+        this.userLookupCache = userLookupCache;
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .refreshAfterWrite(refresh)
+                .expireAfterAccess(refresh.multipliedBy(10))
+                .recordStats()
+                .build(username -> userRepository.findTokenVersionByUsername(username).orElse(UNKNOWN_USER));
+        CaffeineCacheMetrics.monitor(meterRegistry, versions, "jwt.token.versions");
+    }
+
+    public long currentVersion(String username) {
+        return versions.get(username);
+    }
+
+    public boolean isCurrent(String username, long tokenVersion) {
+        return tokenVersion != UNKNOWN_USER && currentVersion(username) == tokenVersion;
+    }
+
+    /**
+     * Revokes every token issued to username so far.
+     *
+     * @return the new version, or -1 if there is no such user
+     */
+    @Transactional
+    public long revokeAll(String username) {
+        if (userRepository.incrementTokenVersion(username) == 0) {
+            return UNKNOWN_USER;
+        }
+        long version = userRepository.findTokenVersionByUsername(username).orElse(UNKNOWN_USER);
+        versions.put(username, version);
+        // Revocation usually follows a role or credential change: re-read the user too
+        userLookupCache.invalidate(username);
+        return version;
+    }
+}
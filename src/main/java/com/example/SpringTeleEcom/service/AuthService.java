@@ -17,6 +17,7 @@ public class AuthService {
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserLookupCache userLookupCache;
 
     public User registerUser(String username, String password, String fullName) {
         Role userRole = roleRepository
@@ -32,7 +33,9 @@ public class AuthService {
                 .roles(Set.of(userRole))
                 .build();
 
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        userLookupCache.invalidate(username);
+        return saved;
     }
 
     public User registerAdmin(String username, String password, String fullName) {
@@ -58,6 +61,8 @@ public class AuthService {
                 .build();
 
         System.out.println("🔑 Admin user created: " + username);
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        userLookupCache.invalidate(username);
+        return saved;
     }
 }
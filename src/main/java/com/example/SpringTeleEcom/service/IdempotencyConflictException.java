@@ -0,0 +1,19 @@
+package com.example.SpringTeleEcom.service;
+
+/**
+ * An Idempotency-Key was reused for a different request, or its first request
+ * is still running after the wait limit.
+ */
+public class IdempotencyConflictException extends RuntimeException {
+
+    private final boolean inProgress;
+
+    public IdempotencyConflictException(String message, boolean inProgress) {
+        super(message);
+        this.inProgress = inProgress;
+    }
+
+    public boolean isInProgress() {
+        return inProgress;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.SpringTeleEcom.service;
+
+/**
+ * An order cannot move from its current status to the requested one
+ * (see {@link com.example.SpringTeleEcom.model.OrderStatus#allowedNext()}).
+ */
+public class InvalidStatusTransitionException extends RuntimeException {
+
+    private final String currentStatus;
+
+    public InvalidStatusTransitionException(String message, String currentStatus) {
+        super(message);
+        this.currentStatus = currentStatus;
+    }
+
+    public String getCurrentStatus() {
+        return currentStatus;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.SpringTeleEcom.service;
+
+import com.example.SpringTeleEcom.model.dto.OrderSummary;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque continuation token for keyset pagination over orders, newest first.
+ * Encodes the (orderDate, id) of the last row returned, so the next page is a
+ * "WHERE (order_date, id) < (?, ?)" range read on the matching index.
+ */
+public record OrderCursor(LocalDate lastDate, long lastId) {
+
+    // Cursor pointing just past the given row
+    public static OrderCursor after(OrderSummary last) {
+        return new OrderCursor(last.orderDate(), last.id());
+    }
+
+    public String encode() {
+        String raw = lastDate + "|" + lastId;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static OrderCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            return new OrderCursor(LocalDate.parse(parts[0]), Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            // also covers NumberFormatException and bad Base64
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+    }
+}
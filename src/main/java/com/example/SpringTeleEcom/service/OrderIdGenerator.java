@@ -0,0 +1,16 @@
+package com.example.SpringTeleEcom.service;
+
+/**
+ * Source of public order ids ("ORD...").
+ *
+ * The default is {@link SnowflakeOrderIdGenerator}; set app.orders.id.generator to
+ * anything else and declare another OrderIdGenerator bean to replace it.
+ */
+public interface OrderIdGenerator {
+
+    /**
+     * A new id, unique across every node and never repeated.
+     * Thread-safe; called once per order on the request (or intake worker) thread.
+     */
+    String nextId();
+}
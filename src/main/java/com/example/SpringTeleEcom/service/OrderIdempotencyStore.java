@@ -0,0 +1,122 @@
+package com.example.SpringTeleEcom.service;
+
+import com.example.SpringTeleEcom.model.dto.OrderRequest;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Dedup store behind the Idempotency-Key header of POST /api/orders.
+ *
+ * Keys are scoped per user and held in a bounded, TTL-evicting in-process cache.
+ * The first request for a key runs the order; concurrent duplicates wait on the same
+ * future and get its result, later duplicates get the stored response without any
+ * database work. A failed attempt is forgotten so the client's next retry runs again.
+ */
+@Component
+public class OrderIdempotencyStore {
+
+    public record Outcome<T>(T response, boolean replayed) {}
+
+    // result holds whatever the first request answered with: an OrderResponse, or an
+    // OrderStatusResponse when the order was queued by the async intake
+    private record Entry(OrderRequest request, CompletableFuture<Object> result) {}
+
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private final Cache<String, Entry> entries;
+    private final Duration inFlightWait;
+
+    private final Counter executed;
+    private final Counter replayed;
+    private final Counter conflicts;
+
+    public OrderIdempotencyStore(MeterRegistry meterRegistry,
+                                 @Value("${app.orders.idempotency.max-keys:100000}") long maxKeys,
+                                 @Value("${app.orders.idempotency.ttl:24h}") Duration ttl,
+                                 @Value("${app.orders.idempotency.in-flight-wait:30s}") Duration inFlightWait) {
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.inFlightWait = inFlightWait;
+
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, "orders.idempotency");
+        this.executed = Counter.builder("orders.idempotency").tag("result", "executed").register(meterRegistry);
+        this.replayed = Counter.builder("orders.idempotency").tag("result", "replayed").register(meterRegistry);
+        this.conflicts = Counter.builder("orders.idempotency").tag("result", "conflict").register(meterRegistry);
+    }
+
+    /**
+     * Drops the stored result for (user, key) so the next request with that key runs again.
+     * For outcomes that only turn out to have failed after execute returned, e.g. an order
+     * accepted by the async intake that a worker could not place.
+     */
+    public void forget(String username, String key) {
+        entries.invalidate(scopedKey(username, key));
+    }
+
+    /**
+     * Runs {@code placeOrder} once per (user, key). Callers under one key must agree on T.
+     *
+     * @throws IdempotencyConflictException if the key was used for a different request body,
+     *                                      or the original is still running after the wait limit
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Outcome<T> execute(String username, String key, OrderRequest request, Supplier<T> placeOrder) {
+        String scopedKey = scopedKey(username, key);
+        Entry mine = new Entry(request, new CompletableFuture<>());
+        Entry existing = entries.asMap().putIfAbsent(scopedKey, mine);
+
+        if (existing == null) {
+            try {
+                T response = placeOrder.get();
+                mine.result().complete(response);
+                executed.increment();
+                return new Outcome<>(response, false);
+            } catch (RuntimeException e) {
+                entries.asMap().remove(scopedKey, mine);
+                mine.result().completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        if (!existing.request().equals(request)) {
+            conflicts.increment();
+            throw new IdempotencyConflictException("Idempotency-Key was already used for a different order", false);
+        }
+        try {
+            T response = (T) existing.result().get(inFlightWait.toMillis(), TimeUnit.MILLISECONDS);
+            replayed.increment();
+            return new Outcome<>(response, true);
+        } catch (TimeoutException e) {
+            conflicts.increment();
+            throw new IdempotencyConflictException("An order with this Idempotency-Key is still being processed", true);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the original order", e);
+        } catch (ExecutionException e) {
+            // Coalesced onto an attempt that failed: report the same failure
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static String scopedKey(String username, String key) {
+        return username + "\u0000" + key;
+    }
+}
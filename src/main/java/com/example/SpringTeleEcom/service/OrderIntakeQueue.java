@@ -0,0 +1,210 @@
+package com.example.SpringTeleEcom.service;
+
+import com.example.SpringTeleEcom.model.dto.OrderRequest;
+import com.example.SpringTeleEcom.model.dto.OrderResponse;
+import com.example.SpringTeleEcom.model.dto.OrderStatusResponse;
+import com.example.SpringTeleEcom.model.dto.OrderStatusResponse.State;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Async order intake (opt-in: app.orders.async.enabled).
+ *
+ * POST /api/orders validates against the product cache, queues the order here and
+ * returns 202 straight away, so a request thread never waits for a database connection.
+ * A fixed number of virtual-thread workers drain the queue and run the normal
+ * OrderService.placeOrder transaction; keeping workers at or below the connection pool
+ * size means they never queue inside Hikari. When the queue is full, submit fails and
+ * the client gets 429.
+ *
+ * Queue and statuses live in memory: orders still queued when the JVM dies are lost
+ * (shutdown drains the queue first), and statuses expire after app.orders.async.status-ttl,
+ * after which placed orders are still reported from the database.
+ */
+@Slf4j
+@Component
+public class OrderIntakeQueue {
+
+    // idempotencyKey: the key the order was submitted under, or null
+    private record Job(String username, String orderId, String idempotencyKey, OrderRequest request, long enqueuedAt) {}
+
+    private record Tracked(String username, OrderStatusResponse status) {}
+
+    private final OrderService orderService;
+    private final OrderIdempotencyStore idempotencyStore;
+    private final boolean enabled;
+    private final int workerCount;
+    private final Duration drainTimeout;
+
+    private final BlockingQueue<Job> queue;
+    private final Cache<String, Tracked> statuses;
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running;
+
+    private final Timer waitTimer;
+    private final Counter accepted;
+    private final Counter rejected;
+    private final Counter completed;
+    private final Counter failed;
+
+    public OrderIntakeQueue(OrderService orderService,
+                            OrderIdempotencyStore idempotencyStore,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.orders.async.enabled:false}") boolean enabled,
+                            @Value("${app.orders.async.queue-capacity:1000}") int queueCapacity,
+                            @Value("${app.orders.async.workers:4}") int workerCount,
+                            @Value("${app.orders.async.status-ttl:1h}") Duration statusTtl,
+                            @Value("${app.orders.async.drain-timeout:30s}") Duration drainTimeout) {
+        this.orderService = orderService;
+        this.idempotencyStore = idempotencyStore;
+        this.enabled = enabled;
+        this.workerCount = Math.max(1, workerCount);
+        this.drainTimeout = drainTimeout;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.statuses = Caffeine.newBuilder()
+                .expireAfterWrite(statusTtl)
+                .build();
+
+        Gauge.builder("orders.intake.queue.depth", queue, BlockingQueue::size)
+                .description("Orders accepted but not yet picked up by a worker")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("orders.intake.wait")
+                .description("Time an order spent queued before a worker started it")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.accepted = Counter.builder("orders.intake").tag("result", "accepted").register(meterRegistry);
+        this.rejected = Counter.builder("orders.intake").tag("result", "rejected").register(meterRegistry);
+        this.completed = Counter.builder("orders.intake").tag("result", "completed").register(meterRegistry);
+        this.failed = Counter.builder("orders.intake").tag("result", "failed").register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        Thread.Builder builder = Thread.ofVirtual().name("order-intake-", 0);
+        for (int i = 0; i < workerCount; i++) {
+            workers.add(builder.start(this::work));
+        }
+        log.info("📥 Async order intake started: {} worker(s), queue capacity {}",
+                workerCount, queue.remainingCapacity());
+    }
+
+    /**
+     * Validates and queues an order for username.
+     *
+     * @param idempotencyKey key the client sent with the order, or null; forgotten if the
+     *                       order fails so that a retry under the same key places it again
+     * @return QUEUED status carrying the order id the client should poll
+     * @throws OrderQueueFullException when the queue is at capacity
+     */
+    public OrderStatusResponse submit(String username, OrderRequest request, String idempotencyKey) {
+        orderService.validateOrder(request);
+
+        String orderId = orderService.newOrderId();
+        OrderStatusResponse queued = new OrderStatusResponse(orderId, State.QUEUED, null, null);
+        statuses.put(orderId, new Tracked(username, queued));
+
+        if (!running || !queue.offer(new Job(username, orderId, idempotencyKey, request, System.nanoTime()))) {
+            statuses.invalidate(orderId);
+            rejected.increment();
+            throw new OrderQueueFullException("Too many orders in progress, please retry shortly");
+        }
+        accepted.increment();
+        return queued;
+    }
+
+    /**
+     * Status of an order queued by username, or null if unknown or someone else's.
+     * Admins pass username = null to see any order.
+     *
+     * Once the in-memory status has expired, or after a restart, an order that made it to
+     * the database is reported COMPLETED from there; anything else is unknown.
+     */
+    public OrderStatusResponse status(String orderId, String username) {
+        Tracked tracked = statuses.getIfPresent(orderId);
+        if (tracked != null) {
+            return username == null || tracked.username().equals(username) ? tracked.status() : null;
+        }
+        return orderService.findOrderResponse(orderId, username)
+                .map(order -> new OrderStatusResponse(orderId, State.COMPLETED, order, null))
+                .orElse(null);
+    }
+
+    private void work() {
+        while (running || !queue.isEmpty()) {
+            Job job;
+            try {
+                job = queue.poll(500, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (job != null) {
+                process(job);
+            }
+        }
+    }
+
+    private void process(Job job) {
+        waitTimer.record(System.nanoTime() - job.enqueuedAt(), TimeUnit.NANOSECONDS);
+        update(job, new OrderStatusResponse(job.orderId(), State.PROCESSING, null, null));
+        try {
+            OrderResponse order = orderService.placeOrder(job.request(), job.username(), job.orderId());
+            update(job, new OrderStatusResponse(job.orderId(), State.COMPLETED, order, null));
+            completed.increment();
+        } catch (RuntimeException e) {
+            log.warn("❌ Queued order {} failed: {}", job.orderId(), e.getMessage());
+            update(job, new OrderStatusResponse(job.orderId(), State.FAILED, null, e.getMessage()));
+            if (job.idempotencyKey() != null) {
+                idempotencyStore.forget(job.username(), job.idempotencyKey());
+            }
+            failed.increment();
+        }
+    }
+
+    private void update(Job job, OrderStatusResponse status) {
+        statuses.put(job.orderId(), new Tracked(job.username(), status));
+    }
+
+    // Stop accepting, let the workers finish what is already queued
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        running = false;
+        long deadline = System.nanoTime() + drainTimeout.toNanos();
+        for (Thread worker : workers) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0 || !worker.join(Duration.ofNanos(remaining))) {
+                worker.interrupt();
+            }
+        }
+        if (!queue.isEmpty()) {
+            log.warn("⚠️ Async order intake stopped with {} order(s) still queued", queue.size());
+        }
+    }
+}
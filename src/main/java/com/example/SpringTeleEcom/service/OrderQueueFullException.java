@@ -0,0 +1,11 @@
+package com.example.SpringTeleEcom.service;
+
+/**
+ * The async order intake queue is at capacity; the client should retry later.
+ */
+public class OrderQueueFullException extends RuntimeException {
+
+    public OrderQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -1,120 +1,212 @@
 package com.example.SpringTeleEcom.service;
 
+import com.example.SpringTeleEcom.inventory.InventoryLedger;
 import com.example.SpringTeleEcom.model.Order;
 import com.example.SpringTeleEcom.model.OrderItem;
-import com.example.SpringTeleEcom.model.Product;
-import com.example.SpringTeleEcom.model.User;
+import com.example.SpringTeleEcom.model.OrderStatus;
+import com.example.SpringTeleEcom.model.dto.BulkStatusResponse;
+import com.example.SpringTeleEcom.model.dto.CursorPage;
 import com.example.SpringTeleEcom.model.dto.OrderItemRequest;
 import com.example.SpringTeleEcom.model.dto.OrderItemResponse;
+import com.example.SpringTeleEcom.model.dto.OrderLineSummary;
 import com.example.SpringTeleEcom.model.dto.OrderRequest;
 import com.example.SpringTeleEcom.model.dto.OrderResponse;
+import com.example.SpringTeleEcom.model.dto.OrderSummary;
+import com.example.SpringTeleEcom.model.dto.ProductSummary;
+import com.example.SpringTeleEcom.outbox.OrderOutbox;
 import com.example.SpringTeleEcom.repo.OrderRepo;
+import com.example.SpringTeleEcom.repo.OrderSearchRepository;
+import com.example.SpringTeleEcom.repo.OrderWriteRepository;
 import com.example.SpringTeleEcom.repo.ProductRepo;
 import com.example.SpringTeleEcom.repo.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class OrderService {
 
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int MAX_BULK_STATUS_IDS = 1000;
+
     private final ProductRepo productRepo;
+    private final ProductService productService;
     private final OrderRepo orderRepo;
+    private final OrderWriteRepository orderWriteRepository;
+    private final OrderSearchRepository orderSearchRepository;
     private final UserRepository userRepository;
+    private final UserLookupCache userLookupCache;
+    private final InventoryLedger inventoryLedger;
+    private final OrderIdGenerator orderIdGenerator;
+    private final OrderOutbox orderOutbox;
+    private final TransactionTemplate transactionTemplate;
+    private final int listMaxOrders;
+    private final int myListMaxOrders;
 
     public OrderService(ProductRepo productRepo,
+                        ProductService productService,
                         OrderRepo orderRepo,
-                        UserRepository userRepository) {
+                        OrderWriteRepository orderWriteRepository,
+                        OrderSearchRepository orderSearchRepository,
+                        UserRepository userRepository,
+                        UserLookupCache userLookupCache,
+                        InventoryLedger inventoryLedger,
+                        OrderIdGenerator orderIdGenerator,
+                        OrderOutbox orderOutbox,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${app.orders.admin.list-max-orders:1000}") int listMaxOrders,
+                        @Value("${app.orders.my.list-max-orders:200}") int myListMaxOrders) {
         this.productRepo = productRepo;
+        this.productService = productService;
         this.orderRepo = orderRepo;
+        this.orderWriteRepository = orderWriteRepository;
+        this.orderSearchRepository = orderSearchRepository;
         this.userRepository = userRepository;
+        this.userLookupCache = userLookupCache;
+        this.inventoryLedger = inventoryLedger;
+        this.orderIdGenerator = orderIdGenerator;
+        this.orderOutbox = orderOutbox;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.listMaxOrders = Math.max(1, listMaxOrders);
+        this.myListMaxOrders = Math.max(1, myListMaxOrders);
     }
 
     // 🔹 Place order for the currently logged-in user
     public OrderResponse placeOrder(OrderRequest request) {
-
-        System.out.println("🛒 PlaceOrder - Starting order creation");
-        System.out.println("   Customer: " + request.customerName());
-        System.out.println("   Email: " + request.email());
-        System.out.println("   Items count: " + request.items().size());
-
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String username = auth.getName();
-
-        System.out.println("   Authenticated user: " + username);
-
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found: " + username));
-
-        System.out.println("   User ID: " + user.getId());
-
-        Order order = new Order();
-        String orderId = "ORD" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-        order.setOrderId(orderId);
-        order.setCustomerName(request.customerName());
-        order.setEmail(request.email());
-        order.setStatus("PLACED");
-        order.setOrderDate(LocalDate.now());
-        order.setUser(user);
-
-        System.out.println("   Generated Order ID: " + orderId);
-
-        List<OrderItem> orderItems = new ArrayList<>();
+        return placeOrder(request, auth.getName(), newOrderId());
+    }
 
-        System.out.println("📝 Processing " + request.items().size() + " item(s) from request:");
+    public String newOrderId() {
+        return orderIdGenerator.nextId();
+    }
 
-        int itemIndex = 0;
+    /**
+     * Cheap checks that need no connection: positive quantities, known products, enough
+     * cached stock. placeOrder runs them itself; the async intake runs them before queuing.
+     *
+     * @return quantity per product id, lines for the same product summed
+     */
+    public Map<Integer, Integer> validateOrder(OrderRequest request) {
+        // Same product on several lines counts once against stock
+        Map<Integer, Integer> quantityByProduct = new LinkedHashMap<>();
         for (OrderItemRequest itemReq : request.items()) {
-            itemIndex++;
-
-            System.out.println("   Item " + itemIndex + ":");
-            System.out.println("      Product ID: " + itemReq.productId());
-            System.out.println("      Quantity Requested: " + itemReq.quantity());
+            if (itemReq.quantity() <= 0) {
+                throw new RuntimeException("Invalid quantity " + itemReq.quantity() + " for product: " + itemReq.productId());
+            }
+            quantityByProduct.merge(Math.toIntExact(itemReq.productId()), itemReq.quantity(), Integer::sum);
+        }
 
-            Product product = productRepo.findById(Math.toIntExact(itemReq.productId()))
-                    .orElseThrow(() -> new RuntimeException("Product not found: " + itemReq.productId()));
+        // 🔹 Reject unknown / out-of-stock items from the product cache before taking a connection.
+        // The authoritative stock check happens again inside the transaction.
+        Map<Integer, ProductSummary> cached = productService.getProductSummaries(quantityByProduct.keySet());
+        if (inventoryLedger.isEnabled()) {
+            // The ledger is the authority on stock; cached counts lag it between flushes
+            checkExists(quantityByProduct, cached);
+        } else {
+            checkStock(quantityByProduct, cached);
+        }
+        return quantityByProduct;
+    }
 
-            System.out.println("      Product Name: " + product.getName());
-            System.out.println("      Product Price: $" + product.getPrice());
+    // 🔹 Place order on behalf of username (request threads and async intake workers)
+    // One transaction, constant round trips however large the cart:
+    // 1 user lookup, 1 product IN query, 1 stock reservation batch, 1 order insert, 1 item batch.
+    public OrderResponse placeOrder(OrderRequest request, String username, String orderId) {
 
-            // reduce stock
-            int newStock = product.getStockQuantity() - itemReq.quantity();
-            if (newStock < 0) {
-                throw new RuntimeException("Insufficient stock for product: " + product.getName());
+        System.out.println("🛒 PlaceOrder - Starting order creation");
+        System.out.println("   Customer: " + request.customerName());
+        System.out.println("   Email: " + request.email());
+        System.out.println("   Items count: " + request.items().size());
+        System.out.println("   User: " + username);
+        System.out.println("   Order ID: " + orderId);
+
+        Map<Integer, Integer> quantityByProduct = validateOrder(request);
+
+        // 🔹 Hot-SKU mode: stock is reserved in memory, and the flush writes it to Postgres later
+        boolean ledgerMode = inventoryLedger.isEnabled();
+        boolean ledgerReserved = false;
+        OrderResponse response;
+        try {
+            if (ledgerMode) {
+                List<Integer> soldOut = inventoryLedger.reserve(quantityByProduct);
+                if (!soldOut.isEmpty()) {
+                    ProductSummary product = productService.getProductSummary(soldOut.get(0).longValue());
+                    throw new RuntimeException("Insufficient stock for product: "
+                            + (product != null ? product.name() : soldOut.get(0)));
+                }
+                ledgerReserved = true;
             }
-            product.setStockQuantity(newStock);
-            productRepo.save(product);
+            response = transactionTemplate.execute(status -> writeOrder(request, username, orderId,
+                    quantityByProduct, ledgerMode));
+        } catch (RuntimeException e) {
+            if (ledgerReserved) {
+                inventoryLedger.release(quantityByProduct);
+            }
+            throw e;
+        }
 
-            System.out.println("      Stock before: " + (newStock + itemReq.quantity()));
-            System.out.println("      Stock after: " + newStock);
+        if (!ledgerMode) {
+            // Committed: cached stock (and possibly availability) is stale now
+            productService.refreshProducts(quantityByProduct.keySet());
+        }
 
-            BigDecimal lineTotal = product.getPrice()
-                    .multiply(BigDecimal.valueOf(itemReq.quantity()));
+        System.out.println("✅ Order saved successfully:");
+        System.out.println("   Order ID: " + response.orderId());
+        System.out.println("   Items: " + response.items().size());
+        System.out.println("   Total Amount: $" + response.totalAmount());
 
-            System.out.println("      Line Total: $" + lineTotal);
+        return response;
+    }
 
-            OrderItem orderItem = OrderItem.builder()
-                    .product(product)
-                    .quantity(itemReq.quantity())
-                    .totalPrice(lineTotal)
-                    .order(order)
-                    .build();
+    // Everything that needs the database, run inside one transaction
+    private OrderResponse writeOrder(OrderRequest request,
+                                     String username,
+                                     String orderId,
+                                     Map<Integer, Integer> quantityByProduct,
+                                     boolean ledgerReserved) {
+        Long userId = userLookupCache.findId(username)
+                .orElseThrow(() -> new RuntimeException("User not found: " + username));
 
-            System.out.println("      ✅ OrderItem created with quantity: " + orderItem.getQuantity());
+        Map<Integer, ProductSummary> products = productRepo.findSummariesByIdIn(quantityByProduct.keySet()).stream()
+                .collect(Collectors.toMap(ProductSummary::id, Function.identity()));
+        if (ledgerReserved) {
+            // Stock already reserved by the ledger; the row's stock_quantity lags behind it
+            checkExists(quantityByProduct, products);
+        } else {
+            checkStock(quantityByProduct, products);
 
-            orderItems.add(orderItem);
-            System.out.println("      ✅ Added to orderItems list (current size: " + orderItems.size() + ")");
+            // 🔹 Atomic reservation: the conditional UPDATE, not the read above, decides who gets the stock
+            List<Integer> soldOut = orderWriteRepository.reserveStock(quantityByProduct, Instant.now());
+            if (!soldOut.isEmpty()) {
+                // Thrown inside the transaction, so reservations already made for other lines roll back
+                throw new RuntimeException("Insufficient stock for product: " + products.get(soldOut.get(0)).name());
+            }
         }
 
-        System.out.println("📦 Total OrderItems created: " + orderItems.size());
-
-        order.setOrderItems(orderItems);
+        List<OrderWriteRepository.ItemRow> itemRows = new ArrayList<>(request.items().size());
+        List<OrderItemResponse> itemResponses = new ArrayList<>(request.items().size());
+        BigDecimal itemsTotal = BigDecimal.ZERO;
+        for (OrderItemRequest itemReq : request.items()) {
+            ProductSummary product = products.get(Math.toIntExact(itemReq.productId()));
+            BigDecimal lineTotal = product.price().multiply(BigDecimal.valueOf(itemReq.quantity()));
+            itemsTotal = itemsTotal.add(lineTotal);
+            itemRows.add(new OrderWriteRepository.ItemRow(product.id(), itemReq.quantity(), lineTotal));
+            itemResponses.add(new OrderItemResponse(product.name(), itemReq.quantity(), lineTotal));
+        }
 
         // Use frontend-calculated values if provided, otherwise calculate on backend
         BigDecimal subtotal;
@@ -132,9 +224,7 @@ public class OrderService {
             System.out.println("💰 Using frontend-calculated totals:");
         } else {
             // Fallback: Calculate on backend (legacy support)
-            subtotal = orderItems.stream()
-                    .map(OrderItem::getTotalPrice)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            subtotal = itemsTotal;
 
             shipping = BigDecimal.ZERO; // Default shipping
 
@@ -148,37 +238,135 @@ public class OrderService {
             System.out.println("💰 Backend-calculated totals:");
         }
 
-        order.setSubtotal(subtotal);
-        order.setShipping(shipping);
-        order.setTax(tax);
-        order.setTotalAmount(totalAmount);
-
         System.out.println("   Subtotal: $" + subtotal);
         System.out.println("   Shipping: $" + shipping);
         System.out.println("   Tax (10%): $" + tax);
         System.out.println("   Total: $" + totalAmount);
 
+        Order order = new Order();
+        order.setOrderId(orderId);
+        order.setCustomerName(request.customerName());
+        order.setEmail(request.email());
+        order.setStatus("PLACED");
+        order.setOrderDate(LocalDate.now());
+        order.setUser(userRepository.getReferenceById(userId));
+        order.setSubtotal(subtotal);
+        order.setShipping(shipping);
+        order.setTax(tax);
+        order.setTotalAmount(totalAmount);
+
+        // IDENTITY id: inserted right away, so the item batch can reference it.
+        // Items are not attached to the entity - they are written by the batch, not by cascade.
         Order savedOrder = orderRepo.save(order);
+        orderWriteRepository.insertItems(savedOrder.getId(), itemRows);
+
+        OrderResponse response = new OrderResponse(
+                savedOrder.getOrderId(),
+                savedOrder.getCustomerName(),
+                savedOrder.getEmail(),
+                savedOrder.getStatus(),
+                savedOrder.getOrderDate(),
+                itemResponses,
+                subtotal,
+                shipping,
+                tax,
+                totalAmount
+        );
+        // Same transaction: the event exists if and only if the order does
+        orderOutbox.orderPlaced(response);
+        return response;
+    }
 
-        System.out.println("✅ Order saved successfully:");
-        System.out.println("   Order ID: " + savedOrder.getOrderId());
-        System.out.println("   Database ID: " + savedOrder.getId());
-        System.out.println("   Items: " + savedOrder.getOrderItems().size());
-        System.out.println("   Total Amount: $" + savedOrder.getTotalAmount());
-
-        System.out.println("   📋 Saved Items Details:");
-        for (int i = 0; i < savedOrder.getOrderItems().size(); i++) {
-            OrderItem item = savedOrder.getOrderItems().get(i);
-            System.out.println("      Item " + (i + 1) + ": " + item.getProduct().getName() +
-                             " x " + item.getQuantity() + " = $" + item.getTotalPrice());
+    private static void checkExists(Map<Integer, Integer> quantityByProduct, Map<Integer, ProductSummary> products) {
+        quantityByProduct.keySet().forEach(productId -> {
+            if (!products.containsKey(productId)) {
+                throw new RuntimeException("Product not found: " + productId);
+            }
+        });
+    }
+
+    private static void checkStock(Map<Integer, Integer> quantityByProduct, Map<Integer, ProductSummary> products) {
+        quantityByProduct.forEach((productId, quantity) -> {
+            ProductSummary product = products.get(productId);
+            if (product == null) {
+                throw new RuntimeException("Product not found: " + productId);
+            }
+            if (product.stockQuantity() < quantity) {
+                throw new RuntimeException("Insufficient stock for product: " + product.name());
+            }
+        });
+    }
+
+    // 🔹 Orders for current logged-in user (MyOrders.jsx) - legacy unpaged list, capped at
+    // app.orders.my.list-max-orders; nextCursor continues in GET /api/orders/my?cursor=...
+    public CursorPage<OrderResponse> getCurrentUserOrderResponses() {
+        Long userId = currentUserId();
+
+        // 2 queries in total (user id comes from the user cache): orders, lines
+        CursorPage<OrderResponse> recent = recentOrders(
+                orderRepo.findRecentSummariesByUserId(userId, PageRequest.of(0, myListMaxOrders + 1)), myListMaxOrders);
+
+        System.out.println("📋 Found " + recent.items().size() + " orders for user" + (recent.hasMore() ? " (capped, more available)" : ""));
+        return recent;
+    }
+
+    // 🔹 A single order by public id, owned by username (null = any owner); empty if not found
+    public Optional<OrderResponse> findOrderResponse(String orderId, String username) {
+        return orderRepo.findSummaryByOrderId(orderId, username)
+                .map(order -> toOrderResponses(List.of(order), orderRepo.findLinesByOrderIdIn(List.of(order.id()))).get(0));
+    }
+
+    // 🔹 One page of the current user's orders, newest first
+    public CursorPage<OrderResponse> getCurrentUserOrderPage(String status, LocalDate from, LocalDate to,
+                                                             String cursor, Integer size) {
+        Long userId = currentUserId();
+        return searchOrders(OrderSearchRepository.Filter.forUser(userId, status, from, to), cursor, size);
+    }
+
+    /**
+     * One keyset page of orders matching the filter, newest first (Admin, and MyOrders via
+     * {@link #getCurrentUserOrderPage}). Two queries however deep the page: the orders, then their lines.
+     *
+     * @param cursor nextCursor from the previous page, or null for the first page
+     * @param size   requested page size, clamped to [1, MAX_PAGE_SIZE]
+     */
+    public CursorPage<OrderResponse> searchOrders(OrderSearchRepository.Filter filter, String cursor, Integer size) {
+        OrderCursor after = (cursor != null && !cursor.isBlank()) ? OrderCursor.decode(cursor) : null;
+        int pageSize = Math.max(1, Math.min(size != null ? size : DEFAULT_PAGE_SIZE, MAX_PAGE_SIZE));
+
+        // Fetch one extra row to know whether another page exists
+        List<OrderSummary> rows = orderSearchRepository.search(normalize(filter),
+                after != null ? after.lastDate() : null,
+                after != null ? after.lastId() : null,
+                pageSize + 1);
+
+        boolean hasMore = rows.size() > pageSize;
+        List<OrderSummary> orders = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasMore ? OrderCursor.after(orders.get(orders.size() - 1)).encode() : null;
+
+        if (orders.isEmpty()) {
+            return new CursorPage<>(List.of(), null, false);
         }
+        List<Long> orderIds = orders.stream().map(OrderSummary::id).toList();
+        return new CursorPage<>(toOrderResponses(orders, orderRepo.findLinesByOrderIdIn(orderIds)), nextCursor, hasMore);
+    }
 
-        return mapToOrderResponse(savedOrder);
+    // Blank query parameters mean "no filter"
+    private static OrderSearchRepository.Filter normalize(OrderSearchRepository.Filter filter) {
+        return new OrderSearchRepository.Filter(
+                filter.userId(),
+                blankToNull(filter.status()),
+                filter.from(),
+                filter.to(),
+                blankToNull(filter.email()),
+                blankToNull(filter.customer()));
     }
 
-    // 🔹 Orders for current logged-in user (MyOrders.jsx)
-    public List<OrderResponse> getCurrentUserOrderResponses() {
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
 
+    private Long currentUserId() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
 
         if (auth == null || !auth.isAuthenticated()) {
@@ -190,81 +378,130 @@ public class OrderService {
         System.out.println("📦 Getting orders for user: " + username);
         System.out.println("   Authorities: " + auth.getAuthorities());
 
-        User user = userRepository.findByUsername(username)
+        Long userId = userLookupCache.findId(username)
                 .orElseThrow(() -> {
                     System.err.println("❌ User not found in database: " + username);
                     System.err.println("   This OAuth user may not have been saved properly during login");
                     return new RuntimeException("User not found: " + username);
                 });
 
-        System.out.println("✅ User found: " + user.getUsername() + " (ID: " + user.getId() + ")");
-
-        List<Order> orders = orderRepo.findByUserId(user.getId());
-
-        System.out.println("📋 Found " + orders.size() + " orders for user");
-
-        return orders.stream()
-                .map(this::mapToOrderResponse)
-                .collect(Collectors.toList());
+        System.out.println("✅ User found: " + username + " (ID: " + userId + ")");
+        return userId;
     }
 
-    // 🔹 All orders (Admin)
-    public List<OrderResponse> getAllOrderResponses() {
+    // 🔹 All orders (Admin) - legacy unpaged list, capped at app.orders.admin.list-max-orders.
+    // Returns the newest orders in id order; nextCursor continues in the paged mode
+    // (GET /api/orders?cursor=...) with the older ones.
+    public CursorPage<OrderResponse> getAllOrderResponses() {
         System.out.println("🔍 OrderService - Getting all orders from database");
 
-        List<Order> orders = orderRepo.findAll();
+        // 2 queries in total: orders, lines
+        CursorPage<OrderResponse> recent = recentOrders(
+                orderRepo.findRecentSummaries(PageRequest.of(0, listMaxOrders + 1)), listMaxOrders);
+        if (recent.items().isEmpty()) {
+            System.out.println("⚠️ No orders found in database! Check if orders are being saved properly.");
+        }
 
-        System.out.println("📊 Total orders in database: " + orders.size());
+        System.out.println("📊 Returning " + recent.items().size() + " order(s)" + (recent.hasMore() ? " (capped, more available)" : ""));
+        return recent;
+    }
 
-        if (!orders.isEmpty()) {
-            System.out.println("📋 Order details:");
-            orders.forEach(order -> {
-                System.out.println("   - Order ID: " + order.getOrderId() +
-                                 ", Customer: " + order.getCustomerName() +
-                                 ", Status: " + order.getStatus() +
-                                 ", Items: " + order.getOrderItems().size());
-            });
-        } else {
-            System.out.println("⚠️ No orders found in database! Check if orders are being saved properly.");
+    // 🔹 Helper: newest-first rows (max + 1 of them) → the newest max orders in id order,
+    // with the cursor the paged mode continues from when there were more
+    private CursorPage<OrderResponse> recentOrders(List<OrderSummary> rows, int max) {
+        boolean hasMore = rows.size() > max;
+        List<OrderSummary> newest = hasMore ? rows.subList(0, max) : rows;
+        if (newest.isEmpty()) {
+            return new CursorPage<>(List.of(), null, false);
         }
+        String nextCursor = hasMore ? OrderCursor.after(newest.get(newest.size() - 1)).encode() : null;
 
-        return orders.stream()
-                .map(this::mapToOrderResponse)
-                .collect(Collectors.toList());
+        List<OrderSummary> orders = new ArrayList<>(newest);
+        orders.sort(Comparator.comparing(OrderSummary::id));
+        List<OrderResponse> responses = toOrderResponses(orders,
+                orderRepo.findLinesByOrderIdIn(orders.stream().map(OrderSummary::id).toList()));
+        return new CursorPage<>(responses, nextCursor, hasMore);
     }
 
-    // 🔹 Update order status (Admin)
+    // 🔹 Update order status (Admin) - a bulk update of one, so both admin paths share the
+    // transition rules of OrderStatus.
+    // false when the order does not exist; true when updated or already in that status
     public boolean updateStatus(String orderId, String newStatus) {
-        Order order = orderRepo.findByOrderId(orderId);
-        if (order == null) {
-            return false;
+        BulkStatusResponse.Result result = bulkUpdateStatus(List.of(orderId), newStatus).results().get(0);
+        return switch (result.outcome()) {
+            case UPDATED, UNCHANGED -> true;
+            case NOT_FOUND -> false;
+            case INVALID_TRANSITION -> throw new InvalidStatusTransitionException(
+                    "Order " + orderId + " cannot move from " + result.previousStatus() + " to "
+                            + OrderStatus.fromParam(newStatus), result.previousStatus());
+        };
+    }
+
+    /**
+     * 🔹 Bulk status change (Admin, warehouse): one transaction, a fixed number of statements
+     * however many ids - one set-based UPDATE, one status read for the ids it skipped and one
+     * outbox batch. Orders whose current status cannot move to the target are left untouched.
+     */
+    public BulkStatusResponse bulkUpdateStatus(List<String> orderIds, String status) {
+        OrderStatus target = OrderStatus.fromParam(status);
+        List<String> distinctIds = orderIds == null ? List.of() : orderIds.stream()
+                .filter(Objects::nonNull).map(String::trim).filter(id -> !id.isEmpty()).distinct().toList();
+        if (distinctIds.isEmpty()) {
+            throw new IllegalArgumentException("orderIds must not be empty");
         }
-        order.setStatus(newStatus.toUpperCase());
-        orderRepo.save(order);
-        return true;
+        if (distinctIds.size() > MAX_BULK_STATUS_IDS) {
+            throw new IllegalArgumentException("At most " + MAX_BULK_STATUS_IDS + " orders per request");
+        }
+        List<String> fromStatuses = target.allowedPrevious().stream().map(Enum::name).toList();
+
+        return transactionTemplate.execute(tx -> {
+            Map<String, String> updated = orderWriteRepository.transitionStatus(distinctIds, fromStatuses, target.name());
+
+            List<String> skipped = distinctIds.stream().filter(id -> !updated.containsKey(id)).toList();
+            Map<String, String> current = skipped.isEmpty() ? Map.of() : orderWriteRepository.findStatuses(skipped);
+
+            List<BulkStatusResponse.Result> results = new ArrayList<>(distinctIds.size());
+            List<OrderOutbox.StatusChange> changes = new ArrayList<>(updated.size());
+            for (String orderId : distinctIds) {
+                if (updated.containsKey(orderId)) {
+                    results.add(new BulkStatusResponse.Result(orderId, BulkStatusResponse.Outcome.UPDATED, updated.get(orderId)));
+                    changes.add(new OrderOutbox.StatusChange(orderId, updated.get(orderId), target.name()));
+                } else if (!current.containsKey(orderId)) {
+                    results.add(new BulkStatusResponse.Result(orderId, BulkStatusResponse.Outcome.NOT_FOUND, null));
+                } else if (target.name().equals(current.get(orderId))) {
+                    results.add(new BulkStatusResponse.Result(orderId, BulkStatusResponse.Outcome.UNCHANGED, current.get(orderId)));
+                } else {
+                    results.add(new BulkStatusResponse.Result(orderId, BulkStatusResponse.Outcome.INVALID_TRANSITION, current.get(orderId)));
+                }
+            }
+            orderOutbox.statusChanged(changes);
+
+            System.out.println("📦 Bulk status → " + target + ": " + updated.size() + "/" + distinctIds.size() + " updated");
+            return new BulkStatusResponse(target.name(), updated.size(), results);
+        });
     }
 
-    // 🔹 Helper: Order → OrderResponse DTO
-    private OrderResponse mapToOrderResponse(Order order) {
-        List<OrderItemResponse> itemResponses = order.getOrderItems().stream()
-                .map(item -> new OrderItemResponse(
-                        item.getProduct().getName(),
-                        item.getQuantity(),
-                        item.getTotalPrice()
+    // 🔹 Helper: order rows + their lines → OrderResponse DTOs, in order-row order
+    private List<OrderResponse> toOrderResponses(List<OrderSummary> orders, List<OrderLineSummary> lines) {
+        Map<Long, List<OrderItemResponse>> itemsByOrder = new HashMap<>();
+        for (OrderLineSummary line : lines) {
+            itemsByOrder.computeIfAbsent(line.orderId(), id -> new ArrayList<>())
+                    .add(new OrderItemResponse(line.productName(), line.quantity(), line.totalPrice()));
+        }
+
+        return orders.stream()
+                .map(order -> new OrderResponse(
+                        order.orderId(),
+                        order.customerName(),
+                        order.email(),
+                        order.status(),
+                        order.orderDate(),
+                        itemsByOrder.getOrDefault(order.id(), List.of()),
+                        order.subtotal(),
+                        order.shipping() != null ? order.shipping() : BigDecimal.ZERO,
+                        order.tax(),
+                        order.totalAmount()
                 ))
                 .collect(Collectors.toList());
-
-        return new OrderResponse(
-                order.getOrderId(),
-                order.getCustomerName(),
-                order.getEmail(),
-                order.getStatus(),
-                order.getOrderDate(),
-                itemResponses,
-                order.getSubtotal(),
-                order.getShipping() != null ? order.getShipping() : BigDecimal.ZERO,
-                order.getTax(),
-                order.getTotalAmount()
-        );
     }
 }
@@ -0,0 +1,102 @@
+package com.example.SpringTeleEcom.service;
+
+import com.example.SpringTeleEcom.model.dto.ProductSummary;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque continuation token for keyset pagination over products.
+ * Encodes the sort key plus the (value, id) of the last row returned,
+ * so the next page is a simple "WHERE (value, id) > (?, ?)" range read.
+ * A null lastValue means the last row had no value for the sort key: those rows sort
+ * last, so the next page continues by id inside that trailing block.
+ */
+public record ProductCursor(SortKey sortKey, int lastId, String lastValue) {
+
+    public enum SortKey {
+        ID("id"),
+        PRICE("price"),
+        RELEASE_DATE("releaseDate"),
+        NAME("name");
+
+        private final String param;
+
+        SortKey(String param) {
+            this.param = param;
+        }
+
+        public String param() {
+            return param;
+        }
+
+        public static SortKey fromParam(String value) {
+            if (value == null || value.isBlank()) {
+                return ID;
+            }
+            for (SortKey key : values()) {
+                if (key.param.equalsIgnoreCase(value.trim())) {
+                    return key;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported sort key: " + value
+                    + " (expected id, price, releaseDate or name)");
+        }
+    }
+
+    // Cursor pointing just past the given row
+    public static ProductCursor after(SortKey sortKey, ProductSummary last) {
+        String value = switch (sortKey) {
+            case ID -> null;
+            case PRICE -> last.price() != null ? last.price().toPlainString() : null;
+            case RELEASE_DATE -> last.releaseDate() != null ? Long.toString(last.releaseDate().getTime()) : null;
+            case NAME -> last.name();
+        };
+        return new ProductCursor(sortKey, last.id(), value);
+    }
+
+    // Values are written as "=value" so an empty name stays distinct from "no value"
+    private static final String VALUE_MARKER = "=";
+
+    public String encode() {
+        String raw = sortKey.param() + "|" + lastId + "|" + (lastValue != null ? VALUE_MARKER + lastValue : "");
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ProductCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            // limit 3: product names may themselves contain '|'
+            String[] parts = raw.split("\\|", 3);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            SortKey sortKey = SortKey.fromParam(parts[0]);
+            int lastId = Integer.parseInt(parts[1]);
+            String lastValue;
+            if (parts[2].isEmpty()) {
+                lastValue = null;
+            } else if (parts[2].startsWith(VALUE_MARKER)) {
+                lastValue = parts[2].substring(VALUE_MARKER.length());
+            } else {
+                // Issued before the marker was introduced
+                lastValue = parts[2];
+            }
+            if (sortKey == SortKey.ID && lastValue != null) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            // Fail here (400) rather than when the page query binds the value
+            if (lastValue != null && sortKey == SortKey.PRICE) {
+                new BigDecimal(lastValue);
+            } else if (lastValue != null && sortKey == SortKey.RELEASE_DATE) {
+                Long.parseLong(lastValue);
+            }
+            return new ProductCursor(sortKey, lastId, lastValue);
+        } catch (IllegalArgumentException e) {
+            // also covers NumberFormatException and bad Base64
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+    }
+}
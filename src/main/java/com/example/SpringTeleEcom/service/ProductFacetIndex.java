@@ -0,0 +1,283 @@
+package com.example.SpringTeleEcom.service;
+
+import com.example.SpringTeleEcom.model.dto.ProductSummary;
+import com.example.SpringTeleEcom.repo.ProductRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory facet index behind /api/product/filter.
+ *
+ * One bitmap per facet value, with bit N set when product id N has that value.
+ * Product ids are dense IDENTITY values, so a plain BitSet stays compact (1 bit per
+ * id ever issued) and a filter is a handful of word-wise OR/AND operations.
+ * Facet counts are disjunctive: each facet is counted against the filters of the
+ * other facets, so selecting one brand still shows the counts of the other brands.
+ *
+ * Built once at startup and kept current by ProductService on every catalog write.
+ */
+@Slf4j
+@Component
+public class ProductFacetIndex {
+
+    public static final String CATEGORY = "category";
+    public static final String BRAND = "brand";
+    public static final String AVAILABILITY = "availability";
+    public static final String PRICE = "price";
+
+    private static final List<String> FACETS = List.of(CATEGORY, BRAND, AVAILABILITY, PRICE);
+
+    /**
+     * Matching product ids plus, per facet, the number of matches for each value.
+     */
+    public record Result(BitSet matches, Map<String, Map<String, Integer>> counts) {}
+
+    private final ProductRepo productRepo;
+    private final BigDecimal[] priceBounds;
+    private final List<String> priceLabels;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Ids put or removed while build() was reading the catalog; build() leaves those alone
+    private Set<Integer> changedDuringBuild;
+    private final Map<String, Map<String, BitSet>> bitmaps = new HashMap<>();
+    private final Map<Integer, Map<String, String>> valuesByProduct = new HashMap<>();
+
+    public ProductFacetIndex(ProductRepo productRepo,
+                             @Value("${app.products.facets.price-buckets:0,50,100,250,500,1000}") BigDecimal[] priceBounds) {
+        this.productRepo = productRepo;
+        this.priceBounds = priceBounds.clone();
+        Arrays.sort(this.priceBounds);
+        this.priceLabels = new ArrayList<>();
+        for (int i = 0; i < this.priceBounds.length; i++) {
+            priceLabels.add(i + 1 < this.priceBounds.length
+                    ? this.priceBounds[i].toPlainString() + "-" + this.priceBounds[i + 1].toPlainString()
+                    : this.priceBounds[i].toPlainString() + "+");
+        }
+        for (String facet : FACETS) {
+            // Sorted values give the frontend a stable facet order
+            bitmaps.put(facet, new TreeMap<>());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            changedDuringBuild = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        // Read outside the lock; rows written meanwhile are newer than what this read saw
+        List<ProductSummary> all = productRepo.findAllSummaries();
+        lock.writeLock().lock();
+        try {
+            for (ProductSummary p : all) {
+                if (!changedDuringBuild.contains(p.id())) {
+                    putLocked(p.id(), p.category(), p.brand(), p.productAvailable(), p.price());
+                }
+            }
+            changedDuringBuild = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("🧮 Facet index built: {} products in {} ms", all.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public void put(int id, String category, String brand, boolean available, BigDecimal price) {
+        lock.writeLock().lock();
+        try {
+            markChanged(id);
+            putLocked(id, category, brand, available, price);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            markChanged(id);
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Moves a product between the availability values without touching its other facets.
+     *
+     * @return true when its availability actually changed
+     */
+    public boolean updateAvailability(int id, boolean available) {
+        lock.writeLock().lock();
+        try {
+            Map<String, String> values = valuesByProduct.get(id);
+            String value = available ? "available" : "unavailable";
+            if (values == null || value.equals(values.get(AVAILABILITY))) {
+                return false;
+            }
+            Map<String, BitSet> availability = bitmaps.get(AVAILABILITY);
+            BitSet previous = availability.get(values.get(AVAILABILITY));
+            previous.clear(id);
+            if (previous.isEmpty()) {
+                availability.remove(values.get(AVAILABILITY));
+            }
+            availability.computeIfAbsent(value, v -> new BitSet()).set(id);
+            values.put(AVAILABILITY, value);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applies the selection: values of one facet are ORed, facets are ANDed.
+     * Facets missing from the selection (or with no values) do not filter.
+     *
+     * @throws IllegalArgumentException for an unknown facet name
+     */
+    public Result filter(Map<String, ? extends Collection<String>> selection) {
+        for (String facet : selection.keySet()) {
+            if (!FACETS.contains(facet)) {
+                throw new IllegalArgumentException("Unknown facet: " + facet + " (expected " + FACETS + ")");
+            }
+        }
+
+        lock.readLock().lock();
+        try {
+            // Union of the selected values per facet; facets without a selection are absent
+            Map<String, BitSet> facetFilters = new HashMap<>();
+            for (String facet : FACETS) {
+                Collection<String> values = selection.get(facet);
+                if (values == null || values.isEmpty()) {
+                    continue;
+                }
+                BitSet union = new BitSet();
+                for (String value : values) {
+                    BitSet bits = bitmaps.get(facet).get(value);
+                    if (bits != null) {
+                        union.or(bits);
+                    }
+                }
+                facetFilters.put(facet, union);
+            }
+
+            BitSet matches = allProducts();
+            facetFilters.values().forEach(matches::and);
+
+            Map<String, Map<String, Integer>> counts = new LinkedHashMap<>();
+            for (String facet : FACETS) {
+                BitSet base = allProducts();
+                facetFilters.forEach((other, bits) -> {
+                    if (!other.equals(facet)) {
+                        base.and(bits);
+                    }
+                });
+                Map<String, Integer> facetCounts = new LinkedHashMap<>();
+                for (String value : orderedValues(facet)) {
+                    BitSet bits = bitmaps.get(facet).get(value);
+                    BitSet intersection = (BitSet) bits.clone();
+                    intersection.and(base);
+                    int count = intersection.cardinality();
+                    if (count > 0 || isSelected(selection, facet, value)) {
+                        facetCounts.put(value, count);
+                    }
+                }
+                counts.put(facet, facetCounts);
+            }
+            return new Result(matches, counts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void markChanged(int id) {
+        if (changedDuringBuild != null) {
+            changedDuringBuild.add(id);
+        }
+    }
+
+    private void putLocked(int id, String category, String brand, boolean available, BigDecimal price) {
+        removeLocked(id);
+        Map<String, String> values = new HashMap<>();
+        values.put(CATEGORY, blankToNull(category));
+        values.put(BRAND, blankToNull(brand));
+        values.put(AVAILABILITY, available ? "available" : "unavailable");
+        values.put(PRICE, priceBucket(price));
+        values.values().removeIf(v -> v == null);
+
+        values.forEach((facet, value) ->
+                bitmaps.get(facet).computeIfAbsent(value, v -> new BitSet()).set(id));
+        valuesByProduct.put(id, values);
+    }
+
+    private void removeLocked(int id) {
+        Map<String, String> previous = valuesByProduct.remove(id);
+        if (previous == null) {
+            return;
+        }
+        previous.forEach((facet, value) -> {
+            BitSet bits = bitmaps.get(facet).get(value);
+            if (bits != null) {
+                bits.clear(id);
+                if (bits.isEmpty()) {
+                    bitmaps.get(facet).remove(value);
+                }
+            }
+        });
+    }
+
+    private BitSet allProducts() {
+        // Every product has an availability value, so the two availability bitmaps cover the catalog
+        BitSet all = new BitSet();
+        bitmaps.get(AVAILABILITY).values().forEach(all::or);
+        return all;
+    }
+
+    // Price buckets in numeric order; other facets alphabetically
+    private Collection<String> orderedValues(String facet) {
+        if (!PRICE.equals(facet)) {
+            return bitmaps.get(facet).keySet();
+        }
+        return priceLabels.stream().filter(bitmaps.get(PRICE)::containsKey).toList();
+    }
+
+    private String priceBucket(BigDecimal price) {
+        if (price == null || priceBounds.length == 0 || price.compareTo(priceBounds[0]) < 0) {
+            return null;
+        }
+        int bucket = 0;
+        while (bucket + 1 < priceBounds.length && price.compareTo(priceBounds[bucket + 1]) >= 0) {
+            bucket++;
+        }
+        return priceLabels.get(bucket);
+    }
+
+    private static boolean isSelected(Map<String, ? extends Collection<String>> selection, String facet, String value) {
+        Collection<String> values = selection.get(facet);
+        return values != null && values.contains(value);
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+}
@@ -1,33 +1,312 @@
 package com.example.SpringTeleEcom.service;
 
+import com.example.SpringTeleEcom.inventory.InventoryFlushedEvent;
+import com.example.SpringTeleEcom.inventory.InventoryLedger;
 import com.example.SpringTeleEcom.model.Product;
+import com.example.SpringTeleEcom.model.dto.CursorPage;
+import com.example.SpringTeleEcom.model.dto.FacetedPage;
+import com.example.SpringTeleEcom.model.dto.ProductSuggestion;
+import com.example.SpringTeleEcom.model.dto.ProductSummary;
 import com.example.SpringTeleEcom.repo.ProductRepo;
+import com.example.SpringTeleEcom.repo.ProductSearchRepository;
+import com.example.SpringTeleEcom.storage.ImageRendition;
+import com.example.SpringTeleEcom.storage.ImageRenditionService;
+import com.example.SpringTeleEcom.storage.ImageStore;
+import com.example.SpringTeleEcom.storage.StoredImage;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class ProductService {
 
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
     private final ProductRepo productRepo;
+    private final ProductSearchRepository productSearchRepository;
+    private final ImageStore imageStore;
+    private final ImageRenditionService renditionService;
+    private final ProductSuggestIndex suggestIndex;
+    private final ProductFacetIndex facetIndex;
+    private final InventoryLedger inventoryLedger;
+
+    // 🔹 Catalog cache: the catalog changes rarely, so reads should not compete with
+    // order writes for the 5 pooled connections. Every write path below invalidates
+    // synchronously; the TTL is only a safety net for changes made outside this service.
+    private final Cache<Integer, ProductSummary> productCache;
+    private final Cache<ListKey, List<ProductSummary>> listCache;
+
+    // Bumped on every write: a list load that raced with a write lands under a stale
+    // generation and is never read, instead of resurrecting the old list.
+    private final AtomicLong listGeneration = new AtomicLong();
 
-    public ProductService(ProductRepo productRepo) {
+    // Stored images are shared by content hash. An upload holds its hash's lock from the
+    // dedup check until the row referencing it is saved, and a delete holds it across the
+    // reference count and the file removal, so neither can slip between the other's steps.
+    private static final int IMAGE_LOCK_STRIPES = 64;
+    private final ReentrantLock[] imageLocks = new ReentrantLock[IMAGE_LOCK_STRIPES];
+
+    private record ListKey(long generation, String sort, String cursor, int size) {}
+
+    public ProductService(ProductRepo productRepo,
+                          ProductSearchRepository productSearchRepository,
+                          ImageStore imageStore,
+                          ImageRenditionService renditionService,
+                          ProductSuggestIndex suggestIndex,
+                          ProductFacetIndex facetIndex,
+                          InventoryLedger inventoryLedger,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.products.cache.max-bytes:16777216}") long maxBytes,
+                          @Value("${app.products.cache.list-max-bytes:16777216}") long listMaxBytes,
+                          @Value("${app.products.cache.expire-after-write:10m}") Duration expireAfterWrite,
+                          @Value("${app.products.cache.list-expire-after-write:1m}") Duration listExpireAfterWrite) {
         this.productRepo = productRepo;
+        this.productSearchRepository = productSearchRepository;
+        this.imageStore = imageStore;
+        this.renditionService = renditionService;
+        this.suggestIndex = suggestIndex;
+        this.facetIndex = facetIndex;
+        this.inventoryLedger = inventoryLedger;
+        for (int i = 0; i < imageLocks.length; i++) {
+            imageLocks[i] = new ReentrantLock();
+        }
+
+        this.productCache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Integer id, ProductSummary summary) -> estimateBytes(summary))
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        this.listCache = Caffeine.newBuilder()
+                .maximumWeight(listMaxBytes)
+                .weigher((ListKey key, List<ProductSummary> rows) ->
+                        rows.stream().mapToInt(ProductService::estimateBytes).sum())
+                .expireAfterWrite(listExpireAfterWrite)
+                .recordStats()
+                .build();
+
+        // cache.gets{result=hit|miss}, cache.evictions, cache.size ... tagged cache=products / products.list
+        CaffeineCacheMetrics.monitor(meterRegistry, productCache, "products");
+        CaffeineCacheMetrics.monitor(meterRegistry, listCache, "products.list");
     }
 
-    // Get all products
-    public List<Product> getAllProducts() {
-        return productRepo.findAll();
+    // Get all products (list projection, no image bytes)
+    public List<ProductSummary> getAllProducts() {
+        ListKey key = new ListKey(listGeneration.get(), null, null, 0);
+        return listCache.get(key, k -> List.copyOf(productRepo.findAllSummaries()));
     }
 
-    // Get product by Long id (controller uses Long, entity uses int)
-    public Product getProductById(Long id) {
+    // Single product as list projection (no image bytes)
+    public ProductSummary getProductSummary(Long id) {
         if (id == null) return null;
-        Optional<Product> productOpt = productRepo.findById(Math.toIntExact(id));
-        return productOpt.orElse(null);
+        // Misses are not cached: a null from the loader stores nothing
+        return productCache.get(Math.toIntExact(id), key -> productRepo.findSummaryById(key).orElse(null));
+    }
+
+    /**
+     * Several products at once, e.g. the items of an order. Only ids missing from the cache
+     * are loaded, in a single query. Unknown ids are absent from the returned map.
+     */
+    public Map<Integer, ProductSummary> getProductSummaries(Collection<Integer> ids) {
+        return productCache.getAll(Set.copyOf(ids), missing ->
+                productRepo.findSummariesByIdIn(Set.copyOf(missing)).stream()
+                        .collect(Collectors.toMap(ProductSummary::id, Function.identity())));
+    }
+
+    /**
+     * Drops a product from the cache. Called after any change that does not go through
+     * addOrUpdateProduct/deleteProduct (stock changes from orders, image migration).
+     */
+    public void invalidateCachedProduct(int id) {
+        productCache.invalidate(id);
+        invalidateLists();
+    }
+
+    /**
+     * Re-reads products whose stock changed outside addOrUpdateProduct (checkout) and
+     * brings the cache, the facet index (availability) and the suggest ranking up to date.
+     * The single IN query also re-warms the cache for the next reads of these products.
+     */
+    public void refreshProducts(Collection<Integer> ids) {
+        productCache.invalidateAll(ids);
+        boolean availabilityChanged = false;
+        for (ProductSummary p : getProductSummaries(ids).values()) {
+            suggestIndex.put(p.id(), p.name(), p.brand(), p.category(), p.stockQuantity());
+            availabilityChanged |= facetIndex.updateAvailability(p.id(), p.productAvailable());
+            facetIndex.put(p.id(), p.category(), p.brand(), p.productAvailable(), p.price());
+        }
+        // A checkout only moves stock counts, which list pages may show stale until
+        // app.products.cache.list-expire-after-write; dropping every list page on each
+        // order would keep the list cache permanently cold under order traffic.
+        if (availabilityChanged) {
+            invalidateLists();
+        }
+    }
+
+    // Ledger flushes change stock every few ms under load: only availability flips are
+    // propagated (facets + cached product); cached stock counts may lag until the next write.
+    @EventListener
+    public void onInventoryFlushed(InventoryFlushedEvent event) {
+        event.available().forEach((productId, available) -> {
+            if (facetIndex.updateAvailability(productId, available > 0)) {
+                invalidateCachedProduct(productId);
+            }
+        });
+    }
+
+    private void invalidateLists() {
+        listGeneration.incrementAndGet();
+        listCache.invalidateAll();
+    }
+
+    // Rough retained size: object headers/fields plus 2 bytes per char of each string
+    private static int estimateBytes(ProductSummary p) {
+        return 160
+                + stringBytes(p.name()) + stringBytes(p.description()) + stringBytes(p.brand())
+                + stringBytes(p.category()) + stringBytes(p.imageName()) + stringBytes(p.imageType())
+                + stringBytes(p.imageHash());
+    }
+
+    private static int stringBytes(String s) {
+        return s == null ? 0 : 40 + 2 * s.length();
+    }
+
+    public Optional<StoredImage> getStoredImage(String imageHash) throws IOException {
+        return imageStore.get(imageHash);
+    }
+
+    // Empty while the rendition is still being generated (generation is queued if needed)
+    public Optional<StoredImage> getStoredRendition(String imageHash, ImageRendition rendition) throws IOException {
+        return renditionService.find(imageHash, rendition);
+    }
+
+    // Legacy image bytes still in Postgres - only called once a conditional GET has missed
+    @Transactional(readOnly = true)
+    public byte[] getImageData(Long id) {
+        if (id == null) return null;
+        return productRepo.findImageDataById(Math.toIntExact(id));
+    }
+
+    /**
+     * Keyset-paginated product listing.
+     * Reads through the ProductSummary projection, so image bytes are never loaded,
+     * and each page is an index range scan regardless of how deep the client has paged.
+     *
+     * @param sort   id (default), price, releaseDate or name
+     * @param cursor opaque token from the previous page, or null for the first page
+     * @param size   requested page size, clamped to [1, MAX_PAGE_SIZE]
+     */
+    public CursorPage<ProductSummary> getProductPage(String sort, String cursor, Integer size) {
+        ProductCursor.SortKey sortKey = ProductCursor.SortKey.fromParam(sort);
+        ProductCursor after = (cursor != null && !cursor.isBlank()) ? ProductCursor.decode(cursor) : null;
+
+        if (after != null && after.sortKey() != sortKey) {
+            throw new IllegalArgumentException("Cursor was issued for sort '" + after.sortKey().param()
+                    + "', not '" + sortKey.param() + "'");
+        }
+
+        int pageSize = Math.max(1, Math.min(size != null ? size : DEFAULT_PAGE_SIZE, MAX_PAGE_SIZE));
+
+        ListKey key = new ListKey(listGeneration.get(), sortKey.param(), after != null ? cursor : null, pageSize);
+        List<ProductSummary> rows = listCache.get(key, k -> List.copyOf(loadPage(sortKey, after, pageSize)));
+
+        boolean hasMore = rows.size() > pageSize;
+        List<ProductSummary> items = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasMore
+                ? ProductCursor.after(sortKey, items.get(items.size() - 1)).encode()
+                : null;
+
+        return new CursorPage<>(List.copyOf(items), nextCursor, hasMore);
+    }
+
+    private List<ProductSummary> loadPage(ProductCursor.SortKey sortKey, ProductCursor after, int pageSize) {
+        // Fetch one extra row to know whether another page exists
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+
+        return switch (sortKey) {
+            case ID -> after == null
+                    ? productRepo.findSummariesOrderById(limit)
+                    : productRepo.findSummariesAfterId(after.lastId(), limit);
+            case PRICE -> {
+                if (after == null) {
+                    yield productRepo.findSummariesOrderByPrice(limit);
+                }
+                if (after.lastValue() == null) {
+                    yield productRepo.findSummariesAfterNullPrice(after.lastId(), limit);
+                }
+                yield withNullTail(productRepo.findSummariesAfterPrice(new BigDecimal(after.lastValue()), after.lastId(), limit),
+                        limit, productRepo::findSummariesAfterNullPrice);
+            }
+            case NAME -> {
+                if (after == null) {
+                    yield productRepo.findSummariesOrderByName(limit);
+                }
+                if (after.lastValue() == null) {
+                    yield productRepo.findSummariesAfterNullName(after.lastId(), limit);
+                }
+                yield withNullTail(productRepo.findSummariesAfterName(after.lastValue(), after.lastId(), limit),
+                        limit, productRepo::findSummariesAfterNullName);
+            }
+            case RELEASE_DATE -> {
+                if (after == null) {
+                    yield productRepo.findSummariesOrderByReleaseDate(limit);
+                }
+                if (after.lastValue() == null) {
+                    // Already inside the trailing block of products without a release date
+                    yield productRepo.findSummariesAfterNullReleaseDate(after.lastId(), limit);
+                }
+                yield withNullTail(productRepo.findSummariesAfterReleaseDate(
+                        new Date(Long.parseLong(after.lastValue())), after.lastId(), limit),
+                        limit, productRepo::findSummariesAfterNullReleaseDate);
+            }
+        };
+    }
+
+    // The non-null keys ran out within this page: fill it from the start of the NULLS LAST tail
+    private static List<ProductSummary> withNullTail(List<ProductSummary> rows, Pageable limit,
+                                                     BiFunction<Integer, Pageable, List<ProductSummary>> nullTail) {
+        if (rows.size() >= limit.getPageSize()) {
+            return rows;
+        }
+        List<ProductSummary> page = new ArrayList<>(rows);
+        // Ids start at 1, so "after 0" is the whole tail
+        page.addAll(nullTail.apply(0, PageRequest.of(0, limit.getPageSize() - rows.size())));
+        return page;
     }
 
     /**
@@ -68,21 +347,195 @@ public class ProductService {
         productToSave.setProductAvailable(product.getStockQuantity() > 0);
 
         // Handle image (only replace if a new file is sent)
+        String replacedImageHash = null;
+        ReentrantLock imageLock = null;
+        Product saved;
+        try {
+            if (imageFile != null && !imageFile.isEmpty()) {
+                // Streamed into the content-addressed store; the row only keeps the key
+                String imageHash;
+                try (InputStream in = imageFile.getInputStream()) {
+                    imageHash = imageStore.put(in);
+                }
+                imageLock = imageLock(imageHash);
+                imageLock.lock();
+                if (!imageStore.exists(imageHash)) {
+                    // put deduplicated onto a file that a concurrent delete has removed since
+                    try (InputStream in = imageFile.getInputStream()) {
+                        imageStore.put(in);
+                    }
+                }
+                replacedImageHash = productToSave.getImageHash();
+                productToSave.setImageName(imageFile.getOriginalFilename());
+                productToSave.setImageType(imageFile.getContentType());
+                productToSave.setImageHash(imageHash);
+                productToSave.setImageData(null);
+                productToSave.setImageUpdatedAt(Instant.now());
+            }
+
+            // Admin stock edits are absolute: let the inventory ledger flush around them
+            Product toSave = productToSave;
+            saved = inventoryLedger.overrideStock(toSave.getId(), () -> productRepo.save(toSave));
+        } finally {
+            if (imageLock != null) {
+                imageLock.unlock();
+            }
+        }
+        invalidateCachedProduct(saved.getId());
+        suggestIndex.put(saved.getId(), saved.getName(), saved.getBrand(), saved.getCategory(), saved.getStockQuantity());
+        facetIndex.put(saved.getId(), saved.getCategory(), saved.getBrand(), saved.isProductAvailable(), saved.getPrice());
+
         if (imageFile != null && !imageFile.isEmpty()) {
-            productToSave.setImageName(imageFile.getOriginalFilename());
-            productToSave.setImageType(imageFile.getContentType());
-            productToSave.setImageData(imageFile.getBytes());
+            // Thumbnails are produced in the background; the upload returns right away
+            renditionService.generateAsync(saved.getImageHash());
         }
 
-        return productRepo.save(productToSave);
+        if (replacedImageHash != null && !replacedImageHash.equals(saved.getImageHash())) {
+            deleteImageIfUnreferenced(replacedImageHash);
+        }
+        return saved;
     }
 
-    public void deleteProduct(Long id) {
-        if (id == null) return;
-        productRepo.deleteById(Math.toIntExact(id));
+    // Returns false when no product with this id exists
+    public boolean deleteProduct(Long id) {
+        if (id == null) return false;
+        ProductSummary existing = getProductSummary(id);
+        if (existing == null) return false;
+
+        productRepo.deleteById(existing.id());
+        inventoryLedger.forget(existing.id());
+        invalidateCachedProduct(existing.id());
+        suggestIndex.remove(existing.id());
+        facetIndex.remove(existing.id());
+
+        if (existing.imageHash() != null) {
+            deleteImageIfUnreferenced(existing.imageHash());
+        }
+        return true;
+    }
+
+    // Identical uploads share one stored file, so only remove it once the last product lets go
+    private void deleteImageIfUnreferenced(String imageHash) {
+        ReentrantLock imageLock = imageLock(imageHash);
+        imageLock.lock();
+        try {
+            if (productRepo.countByImageHash(imageHash) > 0) {
+                return;
+            }
+            imageStore.delete(imageHash);
+        } catch (IOException e) {
+            // An orphaned file is harmless; the product change itself succeeded
+            System.err.println("⚠️ Could not delete unreferenced image " + imageHash + ": " + e.getMessage());
+        } finally {
+            imageLock.unlock();
+        }
     }
 
-    public List<Product> searchProduct(String keyword) {
-        return productRepo.findByProductNameContaining(keyword);
+    private ReentrantLock imageLock(String imageHash) {
+        return imageLocks[Math.floorMod(imageHash.hashCode(), IMAGE_LOCK_STRIPES)];
+    }
+
+    // Autocomplete from the in-memory prefix index - never queries the database
+    public List<ProductSuggestion> suggestProducts(String prefix, Integer limit) {
+        return suggestIndex.suggest(prefix, limit != null ? limit : ProductSuggestIndex.MAX_SUGGESTIONS);
+    }
+
+    /**
+     * Faceted listing in id order. Matching and facet counts come from the in-memory
+     * ProductFacetIndex; only the rows of the returned page are read, via the product cache.
+     *
+     * @param selection facet name -> selected values (ORed within a facet, ANDed across facets)
+     * @param cursor    token from the previous page, or null for the first page
+     * @param size      requested page size, clamped to [1, MAX_PAGE_SIZE]
+     */
+    public FacetedPage<ProductSummary> filterProducts(Map<String, List<String>> selection, String cursor, Integer size) {
+        ProductCursor after = (cursor != null && !cursor.isBlank()) ? ProductCursor.decode(cursor) : null;
+        if (after != null && after.sortKey() != ProductCursor.SortKey.ID) {
+            throw new IllegalArgumentException("Cursor was not issued by /product/filter");
+        }
+        int pageSize = Math.max(1, Math.min(size != null ? size : DEFAULT_PAGE_SIZE, MAX_PAGE_SIZE));
+
+        ProductFacetIndex.Result result = facetIndex.filter(selection);
+        BitSet matches = result.matches();
+
+        List<Integer> pageIds = new ArrayList<>(pageSize + 1);
+        for (int id = matches.nextSetBit(after != null ? after.lastId() + 1 : 0);
+             id >= 0 && pageIds.size() <= pageSize;
+             id = matches.nextSetBit(id + 1)) {
+            pageIds.add(id);
+        }
+        boolean hasMore = pageIds.size() > pageSize;
+        if (hasMore) {
+            pageIds.remove(pageSize);
+        }
+
+        Map<Integer, ProductSummary> summaries = getProductSummaries(pageIds);
+        List<ProductSummary> items = pageIds.stream()
+                .map(summaries::get)
+                .filter(Objects::nonNull) // deleted since the index was read
+                .toList();
+        String nextCursor = hasMore && !items.isEmpty()
+                ? ProductCursor.after(ProductCursor.SortKey.ID, items.get(items.size() - 1)).encode()
+                : null;
+
+        return new FacetedPage<>(items, nextCursor, hasMore, matches.cardinality(), result.counts());
+    }
+
+    /**
+     * Feeds every product (or those changed after {@code since}) to the sink, in id order,
+     * from a server-side cursor - memory use does not depend on the catalog size.
+     * Holds one pooled connection for the duration, so callers should bound concurrency.
+     *
+     * @return number of products written
+     */
+    @Transactional(readOnly = true)
+    public long exportProducts(Instant since, Consumer<ProductSummary> sink) {
+        long count = 0;
+        try (Stream<ProductSummary> rows = since != null
+                ? productRepo.streamSummariesUpdatedSince(since)
+                : productRepo.streamAllSummaries()) {
+            Iterator<ProductSummary> it = rows.iterator();
+            while (it.hasNext()) {
+                sink.accept(it.next());
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Ranked full-text search, best match first, one page at a time: pages continue from
+     * the (rank, id) of the previous page's last row, so a broad keyword never loads or
+     * sends every match.
+     *
+     * @param cursor opaque token from the previous page, or null for the first page
+     * @param size   requested page size (DEFAULT_PAGE_SIZE when null), clamped to [1, MAX_PAGE_SIZE]
+     */
+    public CursorPage<ProductSummary> searchProducts(String keyword, String cursor, Integer size) {
+        SearchCursor after = (cursor != null && !cursor.isBlank()) ? SearchCursor.decode(cursor) : null;
+        int pageSize = Math.max(1, Math.min(size != null ? size : DEFAULT_PAGE_SIZE, MAX_PAGE_SIZE));
+        // Fetch one extra row to know whether another page exists
+        List<ProductSearchRepository.Hit> rows = productSearchRepository.search(keyword,
+                after != null ? after.lastRank() : null,
+                after != null ? after.lastId() : null,
+                pageSize + 1);
+
+        boolean hasMore = rows.size() > pageSize;
+        List<ProductSearchRepository.Hit> hits = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            ProductSearchRepository.Hit last = hits.get(hits.size() - 1);
+            nextCursor = new SearchCursor(last.rank(), last.product().id()).encode();
+        }
+        return new CursorPage<>(hits.stream().map(ProductSearchRepository.Hit::product).toList(), nextCursor, hasMore);
+    }
+
+    public static String sha256Hex(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            // Every JRE is required to ship SHA-256
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 }
@@ -0,0 +1,330 @@
+package com.example.SpringTeleEcom.service;
+
+import com.example.SpringTeleEcom.model.dto.ProductSuggestion;
+import com.example.SpringTeleEcom.model.dto.ProductSummary;
+import com.example.SpringTeleEcom.repo.ProductRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory prefix index behind /api/product/suggest.
+ *
+ * A character trie over product names, brands and categories. Every word start of a
+ * text is indexed ("Samsung Galaxy S21" is found by "sam", "gal" and "galaxy s"), and
+ * each node knows which suggestions live below it. Lookups never touch the database.
+ *
+ * Suggestions are ranked by stock: a product by its own stock, a brand or category by
+ * the total stock of its products. Each node memoizes its top suggestions; a change
+ * only clears the memo on the paths of the texts it touched.
+ *
+ * Built once at startup and kept current by ProductService on every catalog write.
+ */
+@Slf4j
+@Component
+public class ProductSuggestIndex {
+
+    public static final int MAX_SUGGESTIONS = 10;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final Comparator<Entry> RANKING = Comparator
+            .comparingLong(Entry::score).reversed()
+            .thenComparingInt(e -> e.text().length())
+            .thenComparing(Entry::text, String.CASE_INSENSITIVE_ORDER);
+
+    private enum Type { PRODUCT, BRAND, CATEGORY }
+
+    private record Entry(String key, Type type, String text, Integer productId, long score) {
+        ProductSuggestion toSuggestion() {
+            return new ProductSuggestion(type.name(), text, productId);
+        }
+    }
+
+    private static final class Node {
+        final Map<Character, Node> children = new HashMap<>(4);
+        final Set<String> keys = new HashSet<>(4);
+        // Best MAX_SUGGESTIONS entries below this node; null until asked for or after a change
+        volatile List<Entry> top;
+    }
+
+    // What a product contributed to the index, so an update can retract it exactly
+    private record IndexedProduct(String name, String brand, String category, int stock) {}
+
+    // Brand / category suggestion with the products it aggregates
+    private static final class Group {
+        final String text;
+        final Map<Integer, Integer> stockByProduct = new HashMap<>();
+
+        Group(String text) {
+            this.text = text;
+        }
+
+        long totalStock() {
+            return stockByProduct.values().stream().mapToLong(Integer::longValue).sum();
+        }
+    }
+
+    private final ProductRepo productRepo;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Ids put or removed while build() was reading the catalog; build() leaves those alone
+    private Set<Integer> changedDuringBuild;
+    private final Node root = new Node();
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final Map<Integer, IndexedProduct> products = new HashMap<>();
+    private final Map<String, Group> brands = new HashMap<>();
+    private final Map<String, Group> categories = new HashMap<>();
+
+    public ProductSuggestIndex(ProductRepo productRepo) {
+        this.productRepo = productRepo;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            changedDuringBuild = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        // Read outside the lock; rows written meanwhile are newer than what this read saw
+        List<ProductSummary> all = productRepo.findAllSummaries();
+        int suggestions;
+        lock.writeLock().lock();
+        try {
+            for (ProductSummary p : all) {
+                if (!changedDuringBuild.contains(p.id())) {
+                    putLocked(p.id(), p.name(), p.brand(), p.category(), p.stockQuantity());
+                }
+            }
+            changedDuringBuild = null;
+            suggestions = entries.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("🔎 Suggest index built: {} products, {} suggestions in {} ms",
+                all.size(), suggestions, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Suggestions whose text has a word starting with the prefix, best first.
+     */
+    public List<ProductSuggestion> suggest(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        int max = Math.max(1, Math.min(limit, MAX_SUGGESTIONS));
+
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < normalized.length() && node != null; i++) {
+                node = node.children.get(normalized.charAt(i));
+            }
+            if (node == null) {
+                return List.of();
+            }
+            List<Entry> top = node.top;
+            if (top == null) {
+                // Racing readers may compute the same list twice - harmless, and writers are excluded
+                top = node.keys.stream()
+                        .map(entries::get)
+                        .sorted(RANKING)
+                        .limit(MAX_SUGGESTIONS)
+                        .toList();
+                node.top = top;
+            }
+            return top.stream().limit(max).map(Entry::toSuggestion).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Adds or replaces a product (and re-scores its brand and category)
+    public void put(int id, String name, String brand, String category, int stock) {
+        lock.writeLock().lock();
+        try {
+            markChanged(id);
+            putLocked(id, name, brand, category, stock);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            markChanged(id);
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void markChanged(int id) {
+        if (changedDuringBuild != null) {
+            changedDuringBuild.add(id);
+        }
+    }
+
+    private void putLocked(int id, String name, String brand, String category, int stock) {
+        removeLocked(id);
+        IndexedProduct product = new IndexedProduct(name, brand, category, Math.max(stock, 0));
+        products.put(id, product);
+
+        if (!normalize(name).isEmpty()) {
+            addEntry(new Entry(productKey(id), Type.PRODUCT, name, id, product.stock()));
+        }
+        joinGroup(brands, Type.BRAND, "B:", brand, id, product.stock());
+        joinGroup(categories, Type.CATEGORY, "C:", category, id, product.stock());
+    }
+
+    private void removeLocked(int id) {
+        IndexedProduct previous = products.remove(id);
+        if (previous == null) {
+            return;
+        }
+        removeEntry(productKey(id));
+        leaveGroup(brands, Type.BRAND, "B:", previous.brand(), id);
+        leaveGroup(categories, Type.CATEGORY, "C:", previous.category(), id);
+    }
+
+    private void joinGroup(Map<String, Group> groups, Type type, String keyPrefix, String text, int id, int stock) {
+        String normalized = normalize(text);
+        if (normalized.isEmpty()) {
+            return;
+        }
+        // The first spelling seen is the one suggested ("Samsung" vs "samsung" share a group)
+        Group group = groups.computeIfAbsent(normalized, k -> new Group(text.trim()));
+        group.stockByProduct.put(id, stock);
+        replaceEntry(new Entry(keyPrefix + normalized, type, group.text, null, group.totalStock()));
+    }
+
+    private void leaveGroup(Map<String, Group> groups, Type type, String keyPrefix, String text, int id) {
+        String normalized = normalize(text);
+        Group group = groups.get(normalized);
+        if (group == null) {
+            return;
+        }
+        group.stockByProduct.remove(id);
+        if (group.stockByProduct.isEmpty()) {
+            groups.remove(normalized);
+            removeEntry(keyPrefix + normalized);
+        } else {
+            replaceEntry(new Entry(keyPrefix + normalized, type, group.text, null, group.totalStock()));
+        }
+    }
+
+    // Same text, new score: the trie paths stay, only the memoized rankings go stale
+    private void replaceEntry(Entry entry) {
+        Entry previous = entries.put(entry.key(), entry);
+        if (previous == null) {
+            addToTrie(entry);
+        } else {
+            forEachPath(entry.text(), node -> node.top = null);
+        }
+    }
+
+    private void addEntry(Entry entry) {
+        entries.put(entry.key(), entry);
+        addToTrie(entry);
+    }
+
+    private void addToTrie(Entry entry) {
+        for (String suffix : wordSuffixes(entry.text())) {
+            Node node = root;
+            for (int i = 0; i < suffix.length(); i++) {
+                node = node.children.computeIfAbsent(suffix.charAt(i), c -> new Node());
+                node.keys.add(entry.key());
+                node.top = null;
+            }
+        }
+    }
+
+    private void removeEntry(String key) {
+        Entry entry = entries.remove(key);
+        if (entry == null) {
+            return;
+        }
+        for (String suffix : wordSuffixes(entry.text())) {
+            removeFromTrie(root, suffix, 0, key);
+        }
+    }
+
+    private void removeFromTrie(Node node, String suffix, int depth, String key) {
+        if (depth == suffix.length()) {
+            return;
+        }
+        char c = suffix.charAt(depth);
+        Node child = node.children.get(c);
+        if (child == null) {
+            return;
+        }
+        child.keys.remove(key);
+        child.top = null;
+        removeFromTrie(child, suffix, depth + 1, key);
+        // A node's keys cover its whole subtree, so no keys means nothing below either
+        if (child.keys.isEmpty()) {
+            node.children.remove(c);
+        }
+    }
+
+    private void forEachPath(String text, Consumer<Node> action) {
+        for (String suffix : wordSuffixes(text)) {
+            Node node = root;
+            for (int i = 0; i < suffix.length() && node != null; i++) {
+                node = node.children.get(suffix.charAt(i));
+                if (node != null) {
+                    action.accept(node);
+                }
+            }
+        }
+    }
+
+    // "Samsung Galaxy S21" -> ["samsung galaxy s21", "galaxy s21", "s21"]
+    private static List<String> wordSuffixes(String text) {
+        String normalized = normalize(text);
+        List<String> suffixes = new ArrayList<>();
+        if (normalized.isEmpty()) {
+            return suffixes;
+        }
+        suffixes.add(normalized);
+        for (int i = normalized.indexOf(' '); i >= 0; i = normalized.indexOf(' ', i + 1)) {
+            suffixes.add(normalized.substring(i + 1));
+        }
+        return suffixes;
+    }
+
+    // Lower-case, accents stripped, punctuation collapsed to single spaces
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        String stripped = DIACRITICS.matcher(decomposed).replaceAll("");
+        return SEPARATORS.matcher(stripped.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    private static String productKey(int id) {
+        return "P:" + id;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.SpringTeleEcom.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque continuation token for ranked product search, best match first.
+ * Encodes the (rank, id) of the last row returned, so the next page is a
+ * "WHERE rank < ? OR (rank = ? AND id > ?)" read instead of an OFFSET scan.
+ * The rank is kept as its exact float bits so the equality test is stable.
+ */
+public record SearchCursor(float lastRank, int lastId) {
+
+    public String encode() {
+        String raw = Integer.toHexString(Float.floatToIntBits(lastRank)) + "|" + lastId;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static SearchCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            float rank = Float.intBitsToFloat(Integer.parseUnsignedInt(parts[0], 16));
+            if (Float.isNaN(rank)) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            return new SearchCursor(rank, Integer.parseInt(parts[1]));
+        } catch (IllegalArgumentException e) {
+            // also covers NumberFormatException and bad Base64
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+    }
+}
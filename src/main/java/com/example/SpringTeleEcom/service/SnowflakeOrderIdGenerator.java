@@ -0,0 +1,119 @@
+package com.example.SpringTeleEcom.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * Time-ordered order ids: 41 bits of milliseconds since {@link #EPOCH}, 10 bits of node id,
+ * 12 bits of per-node sequence, rendered as "ORD" + 13 base36 digits.
+ *
+ * Ids from one node strictly increase, and ids from different nodes interleave by time,
+ * so inserts land at the right-hand edge of the orders.order_id index instead of at
+ * random pages. The whole state is one AtomicLong (timestamp << 12 | sequence) advanced
+ * by CAS - no locks, and a losing thread simply retries with the winner's value.
+ *
+ * Clock skew: the timestamp never goes backwards. If the wall clock steps back, or a
+ * millisecond's 4096 sequence values are used up, ids continue from the last timestamp
+ * (borrowing future milliseconds) as long as that stays within app.orders.id.max-drift
+ * of the wall clock; beyond that the caller waits for the clock to catch up.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.orders.id.generator", havingValue = "snowflake", matchIfMissing = true)
+public class SnowflakeOrderIdGenerator implements OrderIdGenerator {
+
+    // 2024-01-01T00:00:00Z; 41 bits of milliseconds last until 2093
+    public static final long EPOCH = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    static final long MAX_SEQUENCE = (1L << SEQUENCE_BITS) - 1;
+
+    static final String PREFIX = "ORD";
+    // Long.MAX_VALUE in base36 is 13 digits; zero-padding keeps string order = numeric order
+    static final int DIGITS = 13;
+
+    private final long nodeId;
+    private final long maxDriftMillis;
+    private final LongSupplier clock;
+
+    // timestamp (ms since EPOCH) << SEQUENCE_BITS | sequence of the last id issued
+    private final AtomicLong state = new AtomicLong();
+
+    @Autowired
+    public SnowflakeOrderIdGenerator(@Value("${app.orders.id.node-id:-1}") long nodeId,
+                                     @Value("${app.orders.id.max-drift-ms:2000}") long maxDriftMillis) {
+        this(nodeId >= 0 ? nodeId : hostNodeId(), maxDriftMillis, System::currentTimeMillis);
+        log.info("🆔 Order ids: node {} (app.orders.id.node-id={})", this.nodeId, nodeId);
+    }
+
+    SnowflakeOrderIdGenerator(long nodeId, long maxDriftMillis, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Order id node id must be in [0, " + MAX_NODE_ID + "]: " + nodeId);
+        }
+        this.nodeId = nodeId;
+        this.maxDriftMillis = Math.max(0, maxDriftMillis);
+        this.clock = clock;
+    }
+
+    @Override
+    public String nextId() {
+        return format(nextValue());
+    }
+
+    long nextValue() {
+        while (true) {
+            long last = state.get();
+            long lastTimestamp = last >>> SEQUENCE_BITS;
+            long now = clock.getAsLong() - EPOCH;
+
+            long next;
+            if (now > lastTimestamp) {
+                next = now << SEQUENCE_BITS;
+            } else if ((last & MAX_SEQUENCE) < MAX_SEQUENCE) {
+                // Same millisecond, or the clock stepped back: stay on the last timestamp
+                next = last + 1;
+            } else if (lastTimestamp + 1 - now <= maxDriftMillis) {
+                // Sequence used up: borrow the next millisecond
+                next = (lastTimestamp + 1) << SEQUENCE_BITS;
+            } else {
+                // Too far ahead of the wall clock: wait for it rather than drift further
+                LockSupport.parkNanos(100_000);
+                continue;
+            }
+
+            if (state.compareAndSet(last, next)) {
+                long timestamp = next >>> SEQUENCE_BITS;
+                return (timestamp << (NODE_BITS + SEQUENCE_BITS))
+                        | (nodeId << SEQUENCE_BITS)
+                        | (next & MAX_SEQUENCE);
+            }
+        }
+    }
+
+    static String format(long value) {
+        String digits = Long.toString(value, 36).toUpperCase(Locale.ROOT);
+        return PREFIX + "0".repeat(DIGITS - digits.length()) + digits;
+    }
+
+    // Containers get distinct hostnames; collisions only matter when two nodes share a millisecond
+    private static long hostNodeId() {
+        try {
+            return Math.floorMod(InetAddress.getLocalHost().getHostName().hashCode(), (int) MAX_NODE_ID + 1);
+        } catch (UnknownHostException e) {
+            return 0;
+        }
+    }
+}
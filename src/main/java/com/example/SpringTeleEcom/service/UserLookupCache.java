@@ -0,0 +1,67 @@
+package com.example.SpringTeleEcom.service;
+
+import com.example.SpringTeleEcom.model.Role;
+import com.example.SpringTeleEcom.repo.UserRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Username -> user id, password hash and role names, for the lookups that happen on
+ * request paths (password login, order placement, MyOrders).
+ *
+ * Bounded and TTL-evicted; entries are also dropped whenever something changes the user
+ * (registration, token revocation, password re-hash), so the TTL only bounds staleness
+ * for changes made directly in the database. Unknown usernames are not cached.
+ * Statistics are published as the "users" cache metrics (/actuator/metrics/cache.gets).
+ */
+@Component
+public class UserLookupCache {
+
+    // Immutable copy: Spring Security erases credentials on the UserDetails it is given,
+    // so a fresh UserDetails is built from this for every login
+    public record CachedUser(Long id, String username, String password, List<String> roles) {}
+
+    private final LoadingCache<String, Optional<CachedUser>> users;
+
+    public UserLookupCache(UserRepository userRepository,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.users.cache.max-size:10000}") long maxSize,
+                           @Value("${app.users.cache.ttl:10m}") Duration ttl) {
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build(username -> userRepository.findByUsername(username)
+                        .map(user -> new CachedUser(
+                                user.getId(),
+                                user.getUsername(),
+                                user.getPassword(),
+                                user.getRoles().stream().map(Role::getName).toList())));
+        CaffeineCacheMetrics.monitor(meterRegistry, users, "users");
+    }
+
+    public Optional<CachedUser> find(String username) {
+        Optional<CachedUser> user = users.get(username);
+        if (user.isEmpty()) {
+            // Do not remember misses: the user may be registered a moment later
+            users.invalidate(username);
+        }
+        return user;
+    }
+
+    public Optional<Long> findId(String username) {
+        return find(username).map(CachedUser::id);
+    }
+
+    public void invalidate(String username) {
+        users.invalidate(username);
+    }
+}
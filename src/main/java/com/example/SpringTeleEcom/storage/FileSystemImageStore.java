@@ -0,0 +1,174 @@
+package com.example.SpringTeleEcom.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Default ImageStore: plain files under a root directory.
+ * Layout is root/ab/cd/abcd...(64 hex chars) so no directory grows too large;
+ * renditions sit next to the original as abcd....thumb.jpg etc.
+ * Writes go to a temp file first and are moved into place atomically,
+ * so readers never observe a half-written image.
+ */
+@Slf4j
+@Component
+public class FileSystemImageStore implements ImageStore {
+
+    private static final Pattern KEY_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+    private final Path root;
+    private final Path tmpDir;
+
+    public FileSystemImageStore(@Value("${app.images.storage-dir:./data/images}") String storageDir) throws IOException {
+        this.root = Path.of(storageDir).toAbsolutePath().normalize();
+        this.tmpDir = root.resolve("tmp");
+        Files.createDirectories(tmpDir);
+        log.info("🖼️ Image store root: {}", root);
+    }
+
+    @Override
+    public String put(InputStream content) throws IOException {
+        Path tmp = Files.createTempFile(tmpDir, "upload-", ".part");
+        try {
+            MessageDigest digest = sha256();
+            try (OutputStream out = new DigestOutputStream(Files.newOutputStream(tmp), digest)) {
+                content.transferTo(out);
+            }
+            String key = HexFormat.of().formatHex(digest.digest());
+            Path target = pathFor(key);
+
+            if (Files.exists(target)) {
+                log.debug("Image {} already stored - deduplicated", key);
+                return key;
+            }
+
+            moveIntoPlace(tmp, target);
+            return key;
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    @Override
+    public void putRendition(String key, ImageRendition rendition, InputStream content) throws IOException {
+        Path target = renditionPathFor(key, rendition);
+        Path tmp = Files.createTempFile(tmpDir, "rendition-", ".part");
+        try {
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                content.transferTo(out);
+            }
+            moveIntoPlace(tmp, target);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    @Override
+    public Optional<StoredImage> getRendition(String key, ImageRendition rendition) throws IOException {
+        Path file = renditionPathFor(key, rendition);
+        if (!Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        return Optional.of(new FileStoredImage(key, file, Files.size(file)));
+    }
+
+    @Override
+    public Optional<StoredImage> get(String key) throws IOException {
+        Path file = pathFor(key);
+        if (!Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        return Optional.of(new FileStoredImage(key, file, Files.size(file)));
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return Files.isRegularFile(pathFor(key));
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        for (ImageRendition rendition : ImageRendition.values()) {
+            Files.deleteIfExists(renditionPathFor(key, rendition));
+        }
+        Files.deleteIfExists(pathFor(key));
+    }
+
+    private void moveIntoPlace(Path tmp, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // Same content stored concurrently - equally good
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private Path renditionPathFor(String key, ImageRendition rendition) {
+        Path original = pathFor(key);
+        return original.resolveSibling(key + "." + rendition.param() + "." + rendition.fileExtension());
+    }
+
+    Path pathFor(String key) {
+        // Keys become file names - never accept anything but a SHA-256 hex string
+        if (key == null || !KEY_PATTERN.matcher(key).matches()) {
+            throw new IllegalArgumentException("Invalid image key: " + key);
+        }
+        return root.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(key);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record FileStoredImage(String key, Path file, long size) implements StoredImage {
+
+        @Override
+        public Optional<Path> localPath() {
+            return Optional.of(file);
+        }
+
+        @Override
+        public InputStream openStream() throws IOException {
+            return Files.newInputStream(file);
+        }
+
+        @Override
+        public void transferTo(WritableByteChannel target) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                long position = 0;
+                long remaining = channel.size();
+                // transferTo may move fewer bytes than asked, so loop until done
+                while (remaining > 0) {
+                    long sent = channel.transferTo(position, remaining, target);
+                    position += sent;
+                    remaining -= sent;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.SpringTeleEcom.storage;
+
+import com.example.SpringTeleEcom.repo.ProductRepo;
+import com.example.SpringTeleEcom.service.ProductService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * One-off background job that moves legacy Product.imageData blobs into the ImageStore.
+ * Runs after startup on its own thread, one product per transaction, and is safe to
+ * interrupt and re-run: a row only loses its blob once the store holds the content.
+ */
+@Slf4j
+@Component
+public class ImageMigrationJob {
+
+    private final ProductRepo productRepo;
+    private final ProductService productService;
+    private final ImageStore imageStore;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+
+    public ImageMigrationJob(ProductRepo productRepo,
+                             ProductService productService,
+                             ImageStore imageStore,
+                             JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${app.images.migration.enabled:true}") boolean enabled,
+                             @Value("${app.images.migration.batch-size:50}") int batchSize) {
+        this.productRepo = productRepo;
+        this.productService = productService;
+        this.imageStore = imageStore;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startMigration() {
+        if (!enabled) {
+            log.info("🖼️ Legacy image migration disabled (app.images.migration.enabled=false)");
+            return;
+        }
+        Thread.ofPlatform().name("image-migration").daemon(true).start(this::migrateAll);
+    }
+
+    void migrateAll() {
+        boolean largeObjectColumn = isLargeObjectColumn();
+        int migrated = 0;
+        int failed = 0;
+        int lastId = 0;
+
+        while (true) {
+            List<Integer> ids = productRepo.findIdsWithLegacyImageAfter(lastId, PageRequest.of(0, batchSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            for (Integer id : ids) {
+                lastId = id;
+                try {
+                    if (migrateOne(id, largeObjectColumn)) {
+                        migrated++;
+                    }
+                } catch (Exception e) {
+                    // Leave the blob in place - the image keeps being served from Postgres
+                    failed++;
+                    log.error("❌ Failed to migrate image of product {}: {}", id, e.getMessage(), e);
+                }
+            }
+        }
+
+        if (migrated > 0 || failed > 0) {
+            log.info("🖼️ Legacy image migration finished: {} moved, {} failed", migrated, failed);
+        }
+    }
+
+    private boolean migrateOne(int productId, boolean largeObjectColumn) {
+        Boolean moved = transactionTemplate.execute(status -> {
+            byte[] data = productRepo.findImageDataById(productId);
+            if (data == null) {
+                return false;
+            }
+            String key;
+            try {
+                key = imageStore.put(new ByteArrayInputStream(data));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (largeObjectColumn) {
+                // Hibernate maps @Lob byte[] to an oid on Postgres; nulling the column alone would orphan the large object
+                jdbcTemplate.queryForList("SELECT lo_unlink(image_data) FROM product WHERE id = ?", productId);
+            }
+            productRepo.moveImageToStore(productId, key, Instant.now());
+            return true;
+        });
+        if (Boolean.TRUE.equals(moved)) {
+            // Cached summaries still say "legacy blob" until dropped
+            productService.invalidateCachedProduct(productId);
+        }
+        return Boolean.TRUE.equals(moved);
+    }
+
+    private boolean isLargeObjectColumn() {
+        List<String> types = jdbcTemplate.queryForList(
+                "SELECT data_type FROM information_schema.columns " +
+                        "WHERE table_name = 'product' AND column_name = 'image_data'",
+                String.class);
+        return types.contains("oid");
+    }
+}
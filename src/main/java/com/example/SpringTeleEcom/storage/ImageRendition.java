@@ -0,0 +1,48 @@
+package com.example.SpringTeleEcom.storage;
+
+/**
+ * Resized JPEG copies generated in the background for each uploaded image.
+ * Sizes are the longest edge in pixels; images are never upscaled.
+ */
+public enum ImageRendition {
+    THUMB("thumb", 200),
+    CARD("card", 480),
+    DETAIL("detail", 1200);
+
+    public static final String CONTENT_TYPE = "image/jpeg";
+
+    private final String param;
+    private final int maxEdge;
+
+    ImageRendition(String param, int maxEdge) {
+        this.param = param;
+        this.maxEdge = maxEdge;
+    }
+
+    public String param() {
+        return param;
+    }
+
+    public int maxEdge() {
+        return maxEdge;
+    }
+
+    public String fileExtension() {
+        return "jpg";
+    }
+
+    /**
+     * @return the rendition for a ?size= value, or null for the original ("original" or absent)
+     */
+    public static ImageRendition fromParam(String value) {
+        if (value == null || value.isBlank() || value.equalsIgnoreCase("original")) {
+            return null;
+        }
+        for (ImageRendition rendition : values()) {
+            if (rendition.param.equalsIgnoreCase(value.trim())) {
+                return rendition;
+            }
+        }
+        throw new IllegalArgumentException("Unknown image size: " + value + " (expected thumb, card, detail or original)");
+    }
+}
@@ -0,0 +1,261 @@
+package com.example.SpringTeleEcom.storage;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background pipeline producing the thumb/card/detail JPEG renditions of uploaded images.
+ *
+ * Work runs on a small bounded pool so uploads never wait for resizing and a burst of
+ * uploads cannot eat the CPU needed for serving requests. When the queue is full the job
+ * is dropped; the first request for a missing rendition re-queues it and is served the
+ * original meanwhile, so renditions are eventually produced for every image.
+ *
+ * Images that can never be rendered - a format ImageIO cannot decode, content its reader
+ * fails on, or more than app.images.renditions.max-pixels (a decompression bomb guard,
+ * checked from the header before any pixels are decoded) - are remembered per key, so
+ * requests for them are served the original without queueing the job again.
+ */
+@Slf4j
+@Service
+public class ImageRenditionService {
+
+    private final ImageStore imageStore;
+    private final ThreadPoolExecutor executor;
+    private final float jpegQuality;
+
+    // Keys queued or being processed - avoids duplicate work from concurrent requests
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    // Keys are content hashes, so "cannot be rendered" never changes for a key
+    private final Cache<String, Boolean> unrenderable;
+    private final long maxPixels;
+
+    private final Timer processingTimer;
+    private final Counter succeeded;
+    private final Counter failed;
+    private final Counter rejected;
+    private final Counter unsupported;
+
+    public ImageRenditionService(ImageStore imageStore,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.images.renditions.threads:2}") int threads,
+                                 @Value("${app.images.renditions.queue-capacity:200}") int queueCapacity,
+                                 @Value("${app.images.renditions.jpeg-quality:0.8}") float jpegQuality,
+                                 @Value("${app.images.renditions.max-pixels:40000000}") long maxPixels,
+                                 @Value("${app.images.renditions.unrenderable-max-keys:10000}") long unrenderableMaxKeys) {
+        this.imageStore = imageStore;
+        this.jpegQuality = jpegQuality;
+        this.maxPixels = maxPixels;
+        this.unrenderable = Caffeine.newBuilder()
+                .maximumSize(unrenderableMaxKeys)
+                .build();
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                threads, threads,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-rendition-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.NORM_PRIORITY - 1);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("product.image.renditions.queue", executor, e -> e.getQueue().size())
+                .description("Images waiting for rendition generation")
+                .register(meterRegistry);
+        Gauge.builder("product.image.renditions.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Images currently being resized")
+                .register(meterRegistry);
+        this.processingTimer = Timer.builder("product.image.renditions.duration")
+                .description("Time to produce all renditions of one image")
+                .register(meterRegistry);
+        this.succeeded = Counter.builder("product.image.renditions").tag("result", "success").register(meterRegistry);
+        this.failed = Counter.builder("product.image.renditions").tag("result", "failed").register(meterRegistry);
+        this.rejected = Counter.builder("product.image.renditions").tag("result", "rejected").register(meterRegistry);
+        this.unsupported = Counter.builder("product.image.renditions").tag("result", "unsupported").register(meterRegistry);
+    }
+
+    /**
+     * Queues rendition generation for the image and returns immediately.
+     */
+    public void generateAsync(String key) {
+        if (key == null || unrenderable.getIfPresent(key) != null || !inFlight.add(key)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    processingTimer.record(() -> generate(key));
+                } finally {
+                    inFlight.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key);
+            rejected.increment();
+            log.warn("⚠️ Rendition queue full - skipped {} (will retry on first request)", key);
+        }
+    }
+
+    /**
+     * Looks up a rendition; if it does not exist yet, generation is queued and empty is returned
+     * so the caller can fall back to the original.
+     */
+    public Optional<StoredImage> find(String key, ImageRendition rendition) throws IOException {
+        Optional<StoredImage> stored = imageStore.getRendition(key, rendition);
+        if (stored.isEmpty() && imageStore.exists(key)) {
+            generateAsync(key);
+        }
+        return stored;
+    }
+
+    private void generate(String key) {
+        try {
+            Optional<StoredImage> original = imageStore.get(key);
+            if (original.isEmpty()) {
+                return;
+            }
+
+            BufferedImage source;
+            try (InputStream in = original.get().openStream()) {
+                source = decode(key, in);
+            }
+            if (source == null) {
+                // Unsupported or oversized - the original is served for every size from now on
+                unrenderable.put(key, Boolean.TRUE);
+                unsupported.increment();
+                return;
+            }
+
+            for (ImageRendition rendition : ImageRendition.values()) {
+                if (imageStore.getRendition(key, rendition).isPresent()) {
+                    continue;
+                }
+                byte[] jpeg = encodeJpeg(resize(source, rendition.maxEdge()));
+                imageStore.putRendition(key, rendition, new ByteArrayInputStream(jpeg));
+            }
+            succeeded.increment();
+            log.debug("🖼️ Renditions ready for {}", key);
+        } catch (Exception e) {
+            failed.increment();
+            log.error("❌ Rendition generation failed for {}: {}", key, e.getMessage(), e);
+        }
+    }
+
+    // Reads the dimensions from the header first; null when the image cannot or must not be decoded.
+    // Content that a reader accepts but then fails on (CMYK or truncated JPEGs) counts as cannot:
+    // the key is content-addressed, so a retry would fail the same way
+    private BufferedImage decode(String key, InputStream in) throws IOException {
+        try (ImageInputStream iis = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = iis != null ? ImageIO.getImageReaders(iis) : Collections.emptyIterator();
+            if (!readers.hasNext()) {
+                log.info("ℹ️ No renditions for {}: unsupported image format", key);
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(iis, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > maxPixels) {
+                    log.warn("⚠️ No renditions for {}: {}x{} exceeds {} pixels",
+                            key, reader.getWidth(0), reader.getHeight(0), maxPixels);
+                    return null;
+                }
+                return reader.read(0);
+            } catch (IOException | RuntimeException e) {
+                log.warn("⚠️ No renditions for {}: cannot decode ({})", key, e.getMessage());
+                return null;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage resize(BufferedImage source, int maxEdge) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        double scale = Math.min(1.0, (double) maxEdge / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+
+        // Halve repeatedly first: a single large bilinear step aliases badly
+        BufferedImage current = source;
+        while (current.getWidth() / 2 >= targetWidth && current.getHeight() / 2 >= targetHeight) {
+            current = draw(current, current.getWidth() / 2, current.getHeight() / 2);
+        }
+        return draw(current, targetWidth, targetHeight);
+    }
+
+    private static BufferedImage draw(BufferedImage source, int width, int height) {
+        // JPEG has no alpha: flatten transparent PNGs onto white
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
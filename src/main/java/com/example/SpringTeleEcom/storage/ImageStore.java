@@ -0,0 +1,35 @@
+package com.example.SpringTeleEcom.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+/**
+ * Content-addressed storage for product images.
+ * Keys are the lowercase hex SHA-256 of the content, so identical uploads are stored once
+ * and a key never changes meaning - which is what makes the ?v= image URLs safely immutable.
+ */
+public interface ImageStore {
+
+    /**
+     * Stores the content and returns its SHA-256 key.
+     * If the same content is already present nothing new is written.
+     */
+    String put(InputStream content) throws IOException;
+
+    Optional<StoredImage> get(String key) throws IOException;
+
+    boolean exists(String key);
+
+    /**
+     * Stores a derived rendition (resized copy) next to the original content.
+     */
+    void putRendition(String key, ImageRendition rendition, InputStream content) throws IOException;
+
+    Optional<StoredImage> getRendition(String key, ImageRendition rendition) throws IOException;
+
+    /**
+     * Removes the content and all its renditions. Callers must make sure no product still references the key.
+     */
+    void delete(String key) throws IOException;
+}
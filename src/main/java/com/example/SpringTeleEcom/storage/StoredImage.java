@@ -0,0 +1,30 @@
+package com.example.SpringTeleEcom.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Handle to stored image content. Nothing is read until the content is transferred.
+ */
+public interface StoredImage {
+
+    String key();
+
+    long size();
+
+    /**
+     * Local file backing this image, if the backend has one.
+     * Lets the web tier hand the file straight to the connector (sendfile).
+     */
+    Optional<Path> localPath();
+
+    /**
+     * Copies the whole content to the target without materialising it on the heap.
+     */
+    void transferTo(WritableByteChannel target) throws IOException;
+
+    InputStream openStream() throws IOException;
+}
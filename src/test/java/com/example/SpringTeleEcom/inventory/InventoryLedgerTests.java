@@ -0,0 +1,77 @@
+package com.example.SpringTeleEcom.inventory;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class InventoryLedgerTests {
+
+    private static final int IN_STOCK = 1;
+    private static final int SOLD_OUT = 2;
+
+    @TempDir
+    Path journalDir;
+
+    private JdbcTemplate jdbcTemplate;
+    private InventoryLedger ledger;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForObject(startsWith("SELECT last_seq"), eq(Long.class))).thenReturn(0L);
+        when(jdbcTemplate.queryForList(anyString(), eq(Integer.class), eq(IN_STOCK))).thenReturn(List.of(10));
+
+        ledger = new InventoryLedger(jdbcTemplate, mock(PlatformTransactionManager.class),
+                mock(ApplicationEventPublisher.class), new SimpleMeterRegistry(),
+                true, journalDir.toString(), 4, 1 << 20);
+        ledger.recover();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        ledger.shutdown();
+    }
+
+    @Test
+    void deniedReservationSurvivesStockOverrideOfALineAlreadyTaken() {
+        // Loading the sold-out line happens after IN_STOCK was taken and before the rollback:
+        // an admin stock edit lands right there and drops IN_STOCK's counter
+        when(jdbcTemplate.queryForList(anyString(), eq(Integer.class), eq(SOLD_OUT))).thenAnswer(invocation -> {
+            ledger.overrideStock(IN_STOCK, () -> null);
+            return List.of(0);
+        });
+
+        List<Integer> missing = ledger.reserve(Map.of(IN_STOCK, 4, SOLD_OUT, 1));
+
+        assertThat(missing).containsExactly(SOLD_OUT);
+        // The reloaded counter holds the database stock - the rolled-back units did not land on it twice
+        assertThat(ledger.reserve(Map.of(IN_STOCK, 10))).isEmpty();
+        assertThat(ledger.reserve(Map.of(IN_STOCK, 1))).containsExactly(IN_STOCK);
+    }
+
+    @Test
+    void deniedReservationReturnsUnitsToTheSameCounter() {
+        when(jdbcTemplate.queryForList(anyString(), eq(Integer.class), eq(SOLD_OUT))).thenReturn(List.of(0));
+
+        assertThat(ledger.reserve(Map.of(IN_STOCK, 4, SOLD_OUT, 1))).containsExactly(SOLD_OUT);
+
+        assertThat(ledger.reserve(Map.of(IN_STOCK, 10))).isEmpty();
+        assertThat(ledger.reserve(Map.of(IN_STOCK, 1))).containsExactly(IN_STOCK);
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.SpringTeleEcom.repo;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// A deep keyset page must be an index range scan that starts at the cursor, not a walk from the start of the index
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.example.SpringTeleEcom.repo.ProductRepoKeysetPlanTests$SqlCapture")
+@Transactional
+class ProductRepoKeysetPlanTests {
+
+    private static final Pageable PAGE = PageRequest.of(0, 21);
+
+    @Autowired
+    private ProductRepo productRepo;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        // Deterministic plans on a small test table: the index must be usable, not merely cheaper
+        jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+    }
+
+    @Test
+    void priceCursorIsAnIndexRangeScan() {
+        String sql = capture(() -> productRepo.findSummariesAfterPrice(new BigDecimal("999.99"), 5000, PAGE));
+        assertRangeScan(explain(sql, "'999.99'", "'5000'", "'21'"), "idx_product_price_id");
+    }
+
+    @Test
+    void nameCursorIsAnIndexRangeScan() {
+        String sql = capture(() -> productRepo.findSummariesAfterName("Phone", 5000, PAGE));
+        assertRangeScan(explain(sql, "'Phone'", "'5000'", "'21'"), "idx_product_name_id");
+    }
+
+    @Test
+    void releaseDateCursorIsAnIndexRangeScan() {
+        String sql = capture(() -> productRepo.findSummariesAfterReleaseDate(new Date(0), 5000, PAGE));
+        assertRangeScan(explain(sql, "'2024-06-01'", "'5000'", "'21'"), "idx_product_release_date_id");
+    }
+
+    private static void assertRangeScan(String plan, String index) {
+        assertThat(plan).contains("Index Scan using " + index).contains("Index Cond: (ROW(");
+        assertThat(plan).doesNotContain("Sort").doesNotContain("Seq Scan").doesNotContain("BitmapOr");
+    }
+
+    private static String capture(Runnable query) {
+        SqlCapture.statements.clear();
+        query.run();
+        return SqlCapture.statements.stream()
+                .filter(sql -> sql.toLowerCase().contains("from product"))
+                .reduce((first, second) -> second)
+                .orElseThrow();
+    }
+
+    // Plans the statement Hibernate generated, with the given literals for its ? parameters
+    private String explain(String sql, String... parameters) {
+        StringBuilder numbered = new StringBuilder();
+        int index = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                numbered.append('$').append(++index);
+            } else {
+                numbered.append(c);
+            }
+        }
+        assertThat(index).isEqualTo(parameters.length);
+
+        jdbcTemplate.execute("PREPARE keyset_plan AS " + numbered);
+        try {
+            return String.join("\n", jdbcTemplate.queryForList(
+                    "EXPLAIN EXECUTE keyset_plan(" + String.join(", ", parameters) + ")", String.class));
+        } finally {
+            jdbcTemplate.execute("DEALLOCATE keyset_plan");
+        }
+    }
+
+    public static class SqlCapture implements StatementInspector {
+
+        static final List<String> statements = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+    }
+}
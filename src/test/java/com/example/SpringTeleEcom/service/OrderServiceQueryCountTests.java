@@ -0,0 +1,138 @@
+package com.example.SpringTeleEcom.service;
+
+import com.example.SpringTeleEcom.model.Order;
+import com.example.SpringTeleEcom.model.OrderItem;
+import com.example.SpringTeleEcom.model.Product;
+import com.example.SpringTeleEcom.model.User;
+import com.example.SpringTeleEcom.model.dto.OrderResponse;
+import com.example.SpringTeleEcom.repo.OrderRepo;
+import com.example.SpringTeleEcom.repo.ProductRepo;
+import com.example.SpringTeleEcom.repo.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Order reads must cost a fixed number of statements, however many orders and items there are
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class OrderServiceQueryCountTests {
+
+    private static final int ORDERS = 5;
+    private static final int ITEMS_PER_ORDER = 3;
+
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private OrderRepo orderRepo;
+    @Autowired
+    private ProductRepo productRepo;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private UserLookupCache userLookupCache;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private String username;
+
+    @BeforeEach
+    void setUp() {
+        username = "query-count-" + UUID.randomUUID();
+        User user = userRepository.save(User.builder()
+                .username(username)
+                .password("")
+                .fullName("Query Count")
+                .roles(Set.of())
+                .build());
+
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < ITEMS_PER_ORDER; i++) {
+            products.add(productRepo.save(Product.builder()
+                    .name("Query count product " + i)
+                    .price(BigDecimal.TEN)
+                    .stockQuantity(100)
+                    .productAvailable(true)
+                    .build()));
+        }
+
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = Order.builder()
+                    .orderId("QC" + UUID.randomUUID())
+                    .customerName("Query Count")
+                    .email("query-count@example.com")
+                    .status("PLACED")
+                    .orderDate(LocalDate.now())
+                    .subtotal(BigDecimal.TEN)
+                    .shipping(BigDecimal.ZERO)
+                    .tax(BigDecimal.ONE)
+                    .totalAmount(BigDecimal.valueOf(11))
+                    .user(user)
+                    .items(new ArrayList<>())
+                    .build();
+            for (Product product : products) {
+                order.getItems().add(OrderItem.builder()
+                        .order(order)
+                        .product(product)
+                        .quantity(1)
+                        .totalPrice(product.getPrice())
+                        .build());
+            }
+            orderRepo.save(order);
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(username, null, List.of()));
+        // Steady state: the user is already cached by login
+        userLookupCache.find(username);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void currentUserOrdersUseTwoStatements() {
+        List<OrderResponse> orders = orderService.getCurrentUserOrderResponses().items();
+
+        assertThat(orders).hasSize(ORDERS);
+        assertThat(orders).allSatisfy(order -> assertThat(order.items()).hasSize(ITEMS_PER_ORDER));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void allOrdersUseTwoStatements() {
+        List<OrderResponse> orders = orderService.getAllOrderResponses().items();
+
+        assertThat(orders).hasSizeGreaterThanOrEqualTo(ORDERS);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+}
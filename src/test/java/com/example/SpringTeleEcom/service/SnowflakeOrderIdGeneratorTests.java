@@ -0,0 +1,116 @@
+package com.example.SpringTeleEcom.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SnowflakeOrderIdGeneratorTests {
+
+    private static final long NOW = SnowflakeOrderIdGenerator.EPOCH + 1_000_000L;
+
+    @Test
+    void idsAreFixedWidthAndSortLikeTheirValues() {
+        SnowflakeOrderIdGenerator generator = new SnowflakeOrderIdGenerator(7, 2000, System::currentTimeMillis);
+
+        String previous = generator.nextId();
+        for (int i = 0; i < 10_000; i++) {
+            String id = generator.nextId();
+            assertThat(id).startsWith("ORD").hasSize(3 + SnowflakeOrderIdGenerator.DIGITS);
+            assertThat(id).isGreaterThan(previous);
+            previous = id;
+        }
+        assertThat(SnowflakeOrderIdGenerator.format(Long.MAX_VALUE)).hasSize(3 + SnowflakeOrderIdGenerator.DIGITS);
+    }
+
+    @Test
+    void concurrentCallersNeverCollideAndEachSeesIncreasingIds() throws Exception {
+        SnowflakeOrderIdGenerator generator = new SnowflakeOrderIdGenerator(1, 2000, System::currentTimeMillis);
+        int threads = 8;
+        int perThread = 50_000;
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<long[]>> tasks = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                tasks.add(() -> {
+                    long[] values = new long[perThread];
+                    for (int i = 0; i < perThread; i++) {
+                        values[i] = generator.nextValue();
+                    }
+                    return values;
+                });
+            }
+
+            Set<Long> all = new HashSet<>(threads * perThread * 2);
+            for (Future<long[]> future : pool.invokeAll(tasks)) {
+                long[] values = future.get();
+                for (int i = 0; i < values.length; i++) {
+                    if (i > 0) {
+                        assertThat(values[i]).isGreaterThan(values[i - 1]);
+                    }
+                    all.add(values[i]);
+                }
+            }
+            assertThat(all).hasSize(threads * perThread);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void differentNodesNeverCollideInTheSameMillisecond() {
+        SnowflakeOrderIdGenerator a = new SnowflakeOrderIdGenerator(1, 2000, () -> NOW);
+        SnowflakeOrderIdGenerator b = new SnowflakeOrderIdGenerator(2, 2000, () -> NOW);
+
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            ids.add(a.nextId());
+            ids.add(b.nextId());
+        }
+        assertThat(ids).hasSize(2000);
+    }
+
+    @Test
+    void clockSteppingBackKeepsIdsIncreasing() {
+        AtomicLong clock = new AtomicLong(NOW);
+        SnowflakeOrderIdGenerator generator = new SnowflakeOrderIdGenerator(3, 2000, clock::get);
+
+        long before = generator.nextValue();
+        clock.set(NOW - 500);
+        long after = generator.nextValue();
+
+        assertThat(after).isGreaterThan(before);
+    }
+
+    @Test
+    void exhaustedSequenceBorrowsTheNextMillisecondWithinTheDriftLimit() {
+        SnowflakeOrderIdGenerator generator = new SnowflakeOrderIdGenerator(4, 2000, () -> NOW);
+
+        // A frozen clock forces every id past the first 4096 to borrow a future millisecond
+        long previous = generator.nextValue();
+        for (int i = 0; i < 3 * (SnowflakeOrderIdGenerator.MAX_SEQUENCE + 1); i++) {
+            long value = generator.nextValue();
+            assertThat(value).isGreaterThan(previous);
+            previous = value;
+        }
+        long timestamp = previous >>> (SnowflakeOrderIdGenerator.NODE_BITS + SnowflakeOrderIdGenerator.SEQUENCE_BITS);
+        assertThat(timestamp - (NOW - SnowflakeOrderIdGenerator.EPOCH)).isBetween(1L, 2000L);
+    }
+
+    @Test
+    void rejectsNodeIdsOutOfRange() {
+        assertThatThrownBy(() -> new SnowflakeOrderIdGenerator(SnowflakeOrderIdGenerator.MAX_NODE_ID + 1, 2000, () -> NOW))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.SpringTeleEcom.storage;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageRenditionServiceTests {
+
+    // JPEG signature (so the JPEG reader picks it up) followed by an invalid marker
+    private static final byte[] CORRUPT_JPEG = {
+            (byte) 0xFF, (byte) 0xD8, (byte) 0xFF, 0x00, 0x13, 0x37, 0x00, 0x00, 0x42, 0x42, 0x42, 0x42
+    };
+
+    @TempDir
+    Path storageDir;
+
+    private ImageRenditionService renditionService;
+
+    @AfterEach
+    void tearDown() {
+        if (renditionService != null) {
+            renditionService.shutdown();
+        }
+    }
+
+    @Test
+    void corruptImageIsDecodedOnlyOnce() throws Exception {
+        AtomicInteger reads = new AtomicInteger();
+        ImageStore store = new FileSystemImageStore(storageDir.toString()) {
+            @Override
+            public Optional<StoredImage> get(String key) throws IOException {
+                reads.incrementAndGet();
+                return super.get(key);
+            }
+        };
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        renditionService = new ImageRenditionService(store, meterRegistry, 1, 10, 0.8f, 40_000_000L, 100);
+        String key = store.put(new ByteArrayInputStream(CORRUPT_JPEG));
+
+        renditionService.generateAsync(key);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (unsupported(meterRegistry) < 1 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(unsupported(meterRegistry)).isEqualTo(1);
+
+        // Every later request for a size falls back to the original without queueing a decode
+        for (int i = 0; i < 5; i++) {
+            assertThat(renditionService.find(key, ImageRendition.values()[0])).isEmpty();
+        }
+        assertThat(reads).hasValue(1);
+        assertThat(meterRegistry.counter("product.image.renditions", "result", "failed").count()).isZero();
+    }
+
+    private static double unsupported(MeterRegistry meterRegistry) {
+        return meterRegistry.counter("product.image.renditions", "result", "unsupported").count();
+    }
+}